@@ -1,10 +1,12 @@
 package org.opencv.android;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
@@ -13,6 +15,8 @@ import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.params.StreamConfigurationMap;
+import android.media.Image;
+import android.media.ImageReader;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.util.Log;
@@ -33,6 +37,12 @@ public class Camera2Renderer extends CameraGLRendererBase {
     private Handler mBackgroundHandler;
     private Semaphore mCameraOpenCloseLock = new Semaphore(1);
 
+    // CPU copies of the preview for the view's CameraFrameListener, if it has one; the frames are reused
+    // for the whole session and touched on the background thread only.
+    private ImageReader mImageReader;
+    private JavaCamera2View.JavaCamera2Frame mFrame;
+    private CameraBridgeViewBase.RotatedCameraFrame mRotatedFrame;
+
     Camera2Renderer(CameraGLSurfaceView view) {
         super(view);
     }
@@ -50,9 +60,15 @@ public class Camera2Renderer extends CameraGLRendererBase {
         Log.d(LOGTAG, "doStop");
         super.doStop();
         stopBackgroundThread();
+        if (null != mFrame) {
+            mRotatedFrame.release();
+            mFrame.release();
+            mRotatedFrame = null;
+            mFrame = null;
+        }
     }
 
-    boolean cacPreviewSize(final int width, final int height) {
+    boolean cacPreviewSize(int width, int height) {
         Log.i(LOGTAG, "cacPreviewSize: "+width+"x"+height);
         if(mCameraID == null) {
             Log.e(LOGTAG, "Camera isn't initialized!");
@@ -65,6 +81,10 @@ public class Camera2Renderer extends CameraGLRendererBase {
                     .getCameraCharacteristics(mCameraID);
             StreamConfigurationMap map = characteristics
                     .get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+            if (mFrameRotation % 180 != 0) {
+                // the frames are shown rotated, so they fit the surface the other way round
+                int t = width; width = height; height = t;
+            }
             int bestWidth = 0, bestHeight = 0;
             float aspect = (float)width / height;
             for (Size psize : map.getOutputSizes(SurfaceTexture.class)) {
@@ -121,6 +141,10 @@ public class Camera2Renderer extends CameraGLRendererBase {
                 }
             }
             if(mCameraID != null) {
+                CameraCharacteristics characteristics = manager.getCameraCharacteristics(mCameraID);
+                setFrameRotation(CameraBridgeViewBase.getFrameRotation(mView.getContext(),
+                        characteristics.get(CameraCharacteristics.LENS_FACING) == CameraCharacteristics.LENS_FACING_FRONT,
+                        characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION)));
                 if (!mCameraOpenCloseLock.tryAcquire(2500, TimeUnit.MILLISECONDS)) {
                     throw new RuntimeException(
                             "Time out waiting to lock camera opening.");
@@ -152,6 +176,7 @@ public class Camera2Renderer extends CameraGLRendererBase {
                 mCameraDevice.close();
                 mCameraDevice = null;
             }
+            closeImageReader();
         } catch (InterruptedException e) {
             throw new RuntimeException("Interrupted while trying to lock camera closing.", e);
         } finally {
@@ -214,7 +239,17 @@ public class Camera2Renderer extends CameraGLRendererBase {
                     .createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
             mPreviewRequestBuilder.addTarget(surface);
 
-            mCameraDevice.createCaptureSession(Arrays.asList(surface),
+            List<Surface> outputs = new ArrayList<Surface>(2);
+            outputs.add(surface);
+            closeImageReader();
+            if (null != mView.getCameraFrameListener()) {
+                mImageReader = ImageReader.newInstance(w, h, ImageFormat.YUV_420_888, 2);
+                mImageReader.setOnImageAvailableListener(mImageListener, mBackgroundHandler);
+                mPreviewRequestBuilder.addTarget(mImageReader.getSurface());
+                outputs.add(mImageReader.getSurface());
+            }
+
+            mCameraDevice.createCaptureSession(outputs,
                     new CameraCaptureSession.StateCallback() {
                         @Override
                         public void onConfigured( CameraCaptureSession cameraCaptureSession) {
@@ -249,6 +284,33 @@ public class Camera2Renderer extends CameraGLRendererBase {
         }
     }
 
+    private final ImageReader.OnImageAvailableListener mImageListener = new ImageReader.OnImageAvailableListener() {
+        @Override
+        public void onImageAvailable(ImageReader reader) {
+            Image image = reader.acquireLatestImage();
+            if (image == null)
+                return;
+            CameraGLSurfaceView.CameraFrameListener listener = mView.getCameraFrameListener();
+            if (listener != null) {
+                if (mFrame == null) {
+                    mFrame = new JavaCamera2View.JavaCamera2Frame();
+                    mRotatedFrame = new CameraBridgeViewBase.RotatedCameraFrame(mFrame, mFrameRotation);
+                }
+                mFrame.setImage(image);
+                listener.onCameraFrame(mRotatedFrame);
+                mFrame.setImage(null);
+            }
+            image.close();
+        }
+    };
+
+    private void closeImageReader() {
+        if (null != mImageReader) {
+            mImageReader.close();
+            mImageReader = null;
+        }
+    }
+
     private void startBackgroundThread() {
         Log.i(LOGTAG, "startBackgroundThread");
         stopBackgroundThread();
@@ -68,11 +68,15 @@ public abstract class CameraGLRendererBase implements GLSurfaceView.Renderer, Su
     private int vPosOES, vTCOES, vPos2D, vTC2D;
 
     private FloatBuffer vert, texOES, tex2D;
+    // Texture coordinates for drawing to the screen, rotated by mFrameRotation.
+    private FloatBuffer texOESScreen, tex2DScreen;
 
     protected int mCameraWidth = -1, mCameraHeight = -1;
     protected int mFBOWidth = -1, mFBOHeight = -1;
     protected int mMaxCameraWidth = -1, mMaxCameraHeight = -1;
     protected int mCameraIndex = CameraBridgeViewBase.CAMERA_ID_ANY;
+    // Clockwise rotation from the camera frame to the screen, in degrees.
+    protected int mFrameRotation = 0;
 
     protected SurfaceTexture mSTexture;
 
@@ -94,9 +98,41 @@ public abstract class CameraGLRendererBase implements GLSurfaceView.Renderer, Su
         vert   = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
         texOES = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
         tex2D  = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        texOESScreen = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        tex2DScreen  = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
         vert.put(vertices).position(0);
         texOES.put(texCoordOES).position(0);
         tex2D.put(texCoord2D).position(0);
+        setFrameRotation(0);
+    }
+
+    /**
+     * Sets how the frames are rotated on their way to the screen; the FBO and the texture listener
+     * still get them as the camera delivers them.
+     */
+    protected synchronized void setFrameRotation(int degrees) {
+        mFrameRotation = degrees;
+        float[] oes = new float[texCoordOES.length];
+        float[] tex = new float[texCoord2D.length];
+        for (int i = 0; i < texCoordOES.length; i += 2) {
+            // texCoordOES is the vertex position on screen, y down; find the frame point shown there
+            float u = texCoordOES[i], v = texCoordOES[i+1];
+            float x, y;
+            if (degrees == 90) {
+                x = v; y = 1 - u;
+            } else if (degrees == 180) {
+                x = 1 - u; y = 1 - v;
+            } else if (degrees == 270) {
+                x = 1 - v; y = u;
+            } else {
+                x = u; y = v;
+            }
+            oes[i] = x; oes[i+1] = y;
+            // FBO textures are y up
+            tex[i] = x; tex[i+1] = 1 - y;
+        }
+        texOESScreen.put(oes).position(0);
+        tex2DScreen.put(tex).position(0);
     }
 
     @Override
@@ -329,11 +365,11 @@ public abstract class CameraGLRendererBase implements GLSurfaceView.Renderer, Su
         if(isOES) {
             GLES20.glUseProgram(progOES);
             GLES20.glVertexAttribPointer(vPosOES, 2, GLES20.GL_FLOAT, false, 4*2, vert);
-            GLES20.glVertexAttribPointer(vTCOES,  2, GLES20.GL_FLOAT, false, 4*2, texOES);
+            GLES20.glVertexAttribPointer(vTCOES,  2, GLES20.GL_FLOAT, false, 4*2, fbo == 0 ? texOESScreen : texOES);
         } else {
             GLES20.glUseProgram(prog2D);
             GLES20.glVertexAttribPointer(vPos2D, 2, GLES20.GL_FLOAT, false, 4*2, vert);
-            GLES20.glVertexAttribPointer(vTC2D,  2, GLES20.GL_FLOAT, false, 4*2, tex2D);
+            GLES20.glVertexAttribPointer(vTC2D,  2, GLES20.GL_FLOAT, false, 4*2, fbo == 0 ? tex2DScreen : tex2D);
         }
 
         GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
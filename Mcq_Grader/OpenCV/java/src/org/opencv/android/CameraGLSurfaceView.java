@@ -39,7 +39,18 @@ public class CameraGLSurfaceView extends GLSurfaceView {
         public boolean onCameraTexture(int texIn, int texOut, int width, int height);
     };
 
+    public interface CameraFrameListener {
+        /**
+         * This method is invoked on the camera thread for every preview frame when the frames are also
+         * needed on the CPU, e.g. for detection, while the preview itself stays on the GPU. The frame is
+         * rotated to match the screen like the preview; its Mats are only valid during the call.
+         * @param frame - the preview frame
+         */
+        public void onCameraFrame(CameraBridgeViewBase.CvCameraViewFrame frame);
+    };
+
     private CameraTextureListener mTexListener;
+    private CameraFrameListener mFrameListener;
     private CameraGLRendererBase mRenderer;
 
     public CameraGLSurfaceView(Context context, AttributeSet attrs) {
@@ -71,6 +82,19 @@ public class CameraGLSurfaceView extends GLSurfaceView {
         return mTexListener;
     }
 
+    /**
+     * Delivers the preview frames to the listener as well. Takes effect when the camera is next started.
+     */
+    public void setCameraFrameListener(CameraFrameListener frameListener)
+    {
+        mFrameListener = frameListener;
+    }
+
+    public CameraFrameListener getCameraFrameListener()
+    {
+        return mFrameListener;
+    }
+
     public void setCameraIndex(int cameraIndex) {
         mRenderer.setCameraIndex(cameraIndex);
     }
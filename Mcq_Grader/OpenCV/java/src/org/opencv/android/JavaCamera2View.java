@@ -57,6 +57,11 @@ public class JavaCamera2View extends CameraBridgeViewBase {
     private HandlerThread mBackgroundThread;
     protected Handler mBackgroundHandler;
 
+    // Reused for every frame of a session, so the conversion buffers are allocated once; touched on the
+    // background thread only, and released once it has stopped.
+    private JavaCamera2Frame mFrame;
+    private RotatedCameraFrame mRotatedFrame;
+
     public JavaCamera2View(Context context, int cameraId) {
         super(context, cameraId);
     }
@@ -211,10 +216,13 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     assert (planes.length == 3);
                     assert (image.getFormat() == mPreviewFormat);
 
-                    RotatedCameraFrame tempFrame = new RotatedCameraFrame(new JavaCamera2Frame(image), mFrameRotation);
-                    deliverAndDrawFrame(tempFrame);
-                    tempFrame.mFrame.release();
-                    tempFrame.release();
+                    if (mFrame == null) {
+                        mFrame = new JavaCamera2Frame();
+                        mRotatedFrame = new RotatedCameraFrame(mFrame, mFrameRotation);
+                    }
+                    mFrame.setImage(image);
+                    deliverAndDrawFrame(mRotatedFrame);
+                    mFrame.setImage(null);
                     image.close();
                 }
             }, mBackgroundHandler);
@@ -249,6 +257,12 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                 mImageReader.close();
                 mImageReader = null;
             }
+            if (null != mFrame) {
+                mRotatedFrame.release();
+                mFrame.release();
+                mRotatedFrame = null;
+                mFrame = null;
+            }
         }
         Log.i(LOGTAG, "camera closed!");
     }
@@ -348,122 +362,115 @@ public class JavaCamera2View extends CameraBridgeViewBase {
         return true;
     }
 
-    private class JavaCamera2Frame implements CvCameraViewFrame {
+    /**
+     * A camera image as a CvCameraViewFrame. One instance serves a whole session: the planes are copied
+     * into an I420 staging buffer and Mat kept from frame to frame, and gray() is a header over its Y rows
+     * made once per session, so no Mat or array is allocated per frame. gray() copies the Y plane only;
+     * the chroma planes are copied and converted the first time rgba() is called for the frame.
+     */
+    static class JavaCamera2Frame implements CvCameraViewFrame {
         @Override
         public Mat gray() {
-            Image.Plane[] planes = mImage.getPlanes();
+            if (mGrayValid)
+                return mGray;
             int w = mImage.getWidth();
             int h = mImage.getHeight();
-            assert(planes[0].getPixelStride() == 1);
-            ByteBuffer y_plane = planes[0].getBuffer();
-            int y_plane_step = planes[0].getRowStride();
-            mGray = new Mat(h, w, CvType.CV_8UC1, y_plane, y_plane_step);
+            if (mYuvMat.rows() != h + h / 2 || mYuvMat.cols() != w) {
+                mYuvMat.create(h + h / 2, w, CvType.CV_8UC1);
+                if (mGray != null)
+                    mGray.release();
+                mGray = mYuvMat.rowRange(0, h);
+                mYuvBytes = new byte[w * (h + h / 2)];
+            }
+            Image.Plane y = mImage.getPlanes()[0];
+            assert(y.getPixelStride() == 1);
+            copyPlane(y, mYuvBytes, 0, w, h);
+            mYuvMat.put(0, 0, mYuvBytes, 0, w * h);
+            mGrayValid = true;
             return mGray;
         }
 
         @Override
         public Mat rgba() {
-            Image.Plane[] planes = mImage.getPlanes();
-            int w = mImage.getWidth();
-            int h = mImage.getHeight();
-            int chromaPixelStride = planes[1].getPixelStride();
-
-
-            if (chromaPixelStride == 2) { // Chroma channels are interleaved
-                assert(planes[0].getPixelStride() == 1);
-                assert(planes[2].getPixelStride() == 2);
-                ByteBuffer y_plane = planes[0].getBuffer();
-                int y_plane_step = planes[0].getRowStride();
-                ByteBuffer uv_plane1 = planes[1].getBuffer();
-                int uv_plane1_step = planes[1].getRowStride();
-                ByteBuffer uv_plane2 = planes[2].getBuffer();
-                int uv_plane2_step = planes[2].getRowStride();
-                Mat y_mat = new Mat(h, w, CvType.CV_8UC1, y_plane, y_plane_step);
-                Mat uv_mat1 = new Mat(h / 2, w / 2, CvType.CV_8UC2, uv_plane1, uv_plane1_step);
-                Mat uv_mat2 = new Mat(h / 2, w / 2, CvType.CV_8UC2, uv_plane2, uv_plane2_step);
-                long addr_diff = uv_mat2.dataAddr() - uv_mat1.dataAddr();
-                if (addr_diff > 0) {
-                    assert(addr_diff == 1);
-                    Imgproc.cvtColorTwoPlane(y_mat, uv_mat1, mRgba, Imgproc.COLOR_YUV2RGBA_NV12);
-                } else {
-                    assert(addr_diff == -1);
-                    Imgproc.cvtColorTwoPlane(y_mat, uv_mat2, mRgba, Imgproc.COLOR_YUV2RGBA_NV21);
-                }
+            if (mRgbaValid)
                 return mRgba;
-            } else { // Chroma channels are not interleaved
-                byte[] yuv_bytes = new byte[w*(h+h/2)];
-                ByteBuffer y_plane = planes[0].getBuffer();
-                ByteBuffer u_plane = planes[1].getBuffer();
-                ByteBuffer v_plane = planes[2].getBuffer();
-
-                int yuv_bytes_offset = 0;
-
-                int y_plane_step = planes[0].getRowStride();
-                if (y_plane_step == w) {
-                    y_plane.get(yuv_bytes, 0, w*h);
-                    yuv_bytes_offset = w*h;
-                } else {
-                    int padding = y_plane_step - w;
-                    for (int i = 0; i < h; i++){
-                        y_plane.get(yuv_bytes, yuv_bytes_offset, w);
-                        yuv_bytes_offset += w;
-                        if (i < h - 1) {
-                            y_plane.position(y_plane.position() + padding);
-                        }
-                    }
-                    assert(yuv_bytes_offset == w * h);
-                }
-
-                int chromaRowStride = planes[1].getRowStride();
-                int chromaRowPadding = chromaRowStride - w/2;
+            Mat gray = gray();
+            int w = gray.cols();
+            int h = gray.rows();
+            Image.Plane[] planes = mImage.getPlanes();
+            // U then V, whether the camera interleaves them (NV12 / NV21) or not.
+            copyPlane(planes[1], mYuvBytes, w * h, w / 2, h / 2);
+            copyPlane(planes[2], mYuvBytes, w * h + w * h / 4, w / 2, h / 2);
+            mYuvMat.put(h, 0, mYuvBytes, w * h, w * h / 2);
+            Imgproc.cvtColor(mYuvMat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
+            mRgbaValid = true;
+            return mRgba;
+        }
 
-                if (chromaRowPadding == 0){
-                    // When the row stride of the chroma channels equals their width, we can copy
-                    // the entire channels in one go
-                    u_plane.get(yuv_bytes, yuv_bytes_offset, w*h/4);
-                    yuv_bytes_offset += w*h/4;
-                    v_plane.get(yuv_bytes, yuv_bytes_offset, w*h/4);
+        // Copies a w x h plane into dst at offset, packed, dropping the row padding and the other
+        // chroma channel's bytes between pixels of an interleaved plane.
+        private void copyPlane(Image.Plane plane, byte[] dst, int offset, int w, int h) {
+            ByteBuffer buffer = plane.getBuffer();
+            int rowStride = plane.getRowStride();
+            int pixelStride = plane.getPixelStride();
+            if (pixelStride == 1 && rowStride == w) {
+                buffer.position(0);
+                buffer.get(dst, offset, w * h);
+                return;
+            }
+            int rowLength = (w - 1) * pixelStride + 1;
+            if (mRowBytes == null || mRowBytes.length < rowLength)
+                mRowBytes = new byte[rowLength];
+            for (int i = 0; i < h; i++) {
+                buffer.position(i * rowStride);
+                if (pixelStride == 1) {
+                    buffer.get(dst, offset + i * w, w);
                 } else {
-                    // When not equal, we need to copy the channels row by row
-                    for (int i = 0; i < h/2; i++){
-                        u_plane.get(yuv_bytes, yuv_bytes_offset, w/2);
-                        yuv_bytes_offset += w/2;
-                        if (i < h/2-1){
-                            u_plane.position(u_plane.position() + chromaRowPadding);
-                        }
-                    }
-                    for (int i = 0; i < h/2; i++){
-                        v_plane.get(yuv_bytes, yuv_bytes_offset, w/2);
-                        yuv_bytes_offset += w/2;
-                        if (i < h/2-1){
-                            v_plane.position(v_plane.position() + chromaRowPadding);
-                        }
-                    }
+                    buffer.get(mRowBytes, 0, rowLength);
+                    for (int x = 0; x < w; x++)
+                        dst[offset + i * w + x] = mRowBytes[x * pixelStride];
                 }
-
-                Mat yuv_mat = new Mat(h+h/2, w, CvType.CV_8UC1);
-                yuv_mat.put(0, 0, yuv_bytes);
-                Imgproc.cvtColor(yuv_mat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
-                return mRgba;
             }
         }
 
-
-        public JavaCamera2Frame(Image image) {
+        public JavaCamera2Frame() {
             super();
-            mImage = image;
             mRgba = new Mat();
-            mGray = new Mat();
+            mYuvMat = new Mat();
+        }
+
+        /**
+         * Points the frame at the next camera image, or at none once the image is done with. The Mats
+         * handed out for the previous image hold its pixels until they are overwritten by the next one.
+         */
+        void setImage(Image image) {
+            mImage = image;
+            mGrayValid = false;
+            mRgbaValid = false;
         }
 
         @Override
         public void release() {
+            setImage(null);
+            if (mGray != null) {
+                mGray.release();
+                mGray = null;
+            }
             mRgba.release();
-            mGray.release();
+            mYuvMat.release();
+            mYuvBytes = null;
+            mRowBytes = null;
         }
 
         private Image mImage;
         private Mat mRgba;
+        private boolean mRgbaValid;
+        private boolean mGrayValid;
+        // I420 staging for the whole session: the byte copy of the planes, the Mat it is put into, and a
+        // header over that Mat's Y rows.
+        private byte[] mYuvBytes;
+        private byte[] mRowBytes;
+        private Mat mYuvMat;
         private Mat mGray;
     };
 }
@@ -0,0 +1,281 @@
+package com.example.mcq_grader;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.Circle;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.LayoutGrader;
+import com.example.mcq_grader.opencv.FrameQuality;
+import com.example.mcq_grader.opencv.ImageProcessor;
+import com.example.mcq_grader.opencv.MatScope;
+import com.example.mcq_grader.opencv.MatTracker;
+import com.example.mcq_grader.opencv.OpenCvGrader;
+import org.opencv.android.Utils;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.imgproc.Imgproc;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs sheet photos through the grading stages on one background worker:
+// decode -> orient -> check quality -> detect sheet -> warp -> read bubbles -> score -> render.
+// A photo too blurry, dark or bright to grade fails at CHECK_QUALITY with a PoorQualityException, a few
+// milliseconds in, instead of going through the rest of the stages.
+// At most QUEUE_CAPACITY jobs wait behind the running one; further submissions are rejected and reported
+// through onFailed, so a fast user cannot pile up work. Callbacks arrive on the main thread and stop as
+// soon as a job is cancelled. Every stage that completes is timed into the session's PipelineMetrics.
+public final class GradingPipeline {
+    private static final String TAG = "GradingPipeline";
+    private static final int QUEUE_CAPACITY = 2;
+
+    public enum Stage { DECODE, ORIENT, CHECK_QUALITY, DETECT_SHEET, WARP, READ_BUBBLES, SCORE, RENDER }
+
+    // Whose sheet it is: a teacher sheet compiles the key, a student sheet is read against it.
+    public enum Role { TEACHER, STUDENT }
+
+    public interface Listener {
+        // A stage is about to run.
+        void onStage(Stage stage);
+
+        // The photo is decoded, with the orientation to show it upright; the rest of the stages are
+        // still running.
+        void onImage(Bitmap image, SheetOrientation orientation);
+
+        void onComplete(SheetResult result);
+
+        void onFailed(Stage stage, Exception error);
+    }
+
+    // A photo to process. Requests with a source start by decoding it and take the EXIF orientation;
+    // requests with an image that is already decoded (e.g. rotated by the user) start at ORIENT.
+    public static final class Request {
+        final Role role;
+        final Uri source;
+        final Bitmap image;
+        final SheetOrientation orientation;
+        final AnswerKey answerKey;
+        final CompiledLayout sheetLayout;
+
+        private Request(Role role, Uri source, Bitmap image, SheetOrientation orientation, AnswerKey answerKey,
+                        CompiledLayout sheetLayout) {
+            this.role = role;
+            this.source = source;
+            this.image = image;
+            this.orientation = orientation;
+            this.answerKey = answerKey;
+            this.sheetLayout = sheetLayout;
+        }
+
+        // Process a photo straight from where it was captured or picked. For a student sheet,
+        // answerKey may be null when the key is not known yet; the marks are then read later from
+        // the clean sheet. For a teacher sheet, sheetLayout is the printed sheet the key is compiled
+        // against, or null to derive the layout from the marks.
+        public static Request capture(Role role, Uri source, AnswerKey answerKey, CompiledLayout sheetLayout) {
+            return new Request(role, source, null, null, answerKey, sheetLayout);
+        }
+
+        // Process an already decoded photo, turned upright with the given orientation.
+        public static Request process(Role role, Bitmap image, SheetOrientation orientation, AnswerKey answerKey,
+                                      CompiledLayout sheetLayout) {
+            return new Request(role, null, image, orientation, answerKey, sheetLayout);
+        }
+    }
+
+    // The photo should be retaken; getProblem() says why.
+    public static final class PoorQualityException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final FrameQuality.Problem problem;
+
+        PoorQualityException(FrameQuality quality) {
+            super(quality.getProblem() + ": " + quality);
+            this.problem = quality.getProblem();
+        }
+
+        public FrameQuality.Problem getProblem() {
+            return problem;
+        }
+    }
+
+    public static final class Job {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static GradingPipeline instance;
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+
+    private GradingPipeline(Context context) {
+        this.context = context.getApplicationContext();
+        // Debug builds count the Mats of every stage; ResultActivity reports what is left per sheet.
+        MatTracker.setEnabled((this.context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+    }
+
+    public static synchronized GradingPipeline getInstance(Context context) {
+        if (instance == null) {
+            instance = new GradingPipeline(context);
+        }
+        return instance;
+    }
+
+    public Job submit(Request request, Listener listener) {
+        Job job = new Job();
+        try {
+            executor.execute(() -> run(request, job, listener));
+        } catch (RejectedExecutionException e) {
+            job.cancel();
+            Stage first = request.source != null ? Stage.DECODE : Stage.DETECT_SHEET;
+            mainHandler.post(() -> listener.onFailed(first, e));
+        }
+        return job;
+    }
+
+    private void run(Request request, Job job, Listener listener) {
+        SheetResult result = new SheetResult();
+        StageClock clock = new StageClock(GradingSession.getInstance().getMetrics());
+        Stage stage = null;
+        // Every Mat of the job is released when it ends, except the gray sheet once delivered.
+        try (MatScope scope = MatScope.open(Stage.DECODE.name())) {
+            Bitmap image = request.image;
+            SheetOrientation orientation = request.orientation;
+            if (request.source != null) {
+                stage = enter(clock, Stage.DECODE, job, listener, scope);
+                SheetDecoder.Decoded decoded = SheetDecoder.decode(context.getContentResolver(), request.source);
+                image = decoded.bitmap;
+                orientation = decoded.orientation;
+                Bitmap shown = image;
+                SheetOrientation shownOrientation = orientation;
+                mainHandler.post(() -> {
+                    if (!job.isCancelled()) listener.onImage(shown, shownOrientation);
+                });
+            }
+            result.image = image;
+            result.orientation = orientation;
+
+            // The photo stays as decoded; its orientation is folded into the sheet warp so the pixels are
+            // resampled once. The sheet outline is found in the decoded frame.
+            stage = enter(clock, Stage.ORIENT, job, listener, scope);
+            Mat rgba = scope.mat();
+            Utils.bitmapToMat(image, rgba);
+            Mat bgr = scope.mat();
+            Imgproc.cvtColor(rgba, bgr, Imgproc.COLOR_RGBA2BGR);
+            rgba.release();
+            double[] uprightMatrix = orientation.toMatrix(bgr.cols(), bgr.rows());
+
+            stage = enter(clock, Stage.CHECK_QUALITY, job, listener, scope);
+            FrameQuality quality = FrameQuality.measure(bgr);
+            if (!quality.isAcceptable()) {
+                throw new PoorQualityException(quality);
+            }
+
+            stage = enter(clock, Stage.DETECT_SHEET, job, listener, scope);
+            MatOfPoint2f corners = scope.track(ImageProcessor.findSheetCorners(bgr));
+
+            // Without a sheet outline the whole upright photo is used, as processImage does.
+            stage = enter(clock, Stage.WARP, job, listener, scope);
+            Mat warped = scope.mat();
+            if (corners != null) {
+                ImageProcessor.warpSheet(bgr, corners, uprightMatrix, warped);
+            } else {
+                orientation.apply(bgr, warped);
+            }
+            result.sheetGray = scope.mat();
+            Imgproc.cvtColor(warped, result.sheetGray, Imgproc.COLOR_BGR2GRAY);
+
+            stage = enter(clock, Stage.READ_BUBBLES, job, listener, scope);
+            LayoutGrader<Mat> grader = OpenCvGrader.threadLayoutGrader();
+            List<Circle> teacherMarks = null;
+            if (request.role == Role.TEACHER && request.sheetLayout != null) {
+                // The key is read cell by cell like a student sheet, so any ink or pencil counts.
+                result.marks = grader.readSheet(result.sheetGray, request.sheetLayout);
+            } else if (request.role == Role.TEACHER) {
+                // Without a layout the bubbles are found by color, which only sees blue ink.
+                teacherMarks = ImageProcessor.detectFilledBubbles(warped);
+            } else if (request.answerKey != null) {
+                result.marks = grader.readSheet(result.sheetGray, request.answerKey.getLayout());
+            }
+
+            stage = enter(clock, Stage.SCORE, job, listener, scope);
+            if (request.role == Role.TEACHER && result.marks != null) {
+                // On a declared layout the key has a cell for every option, including the ones that are
+                // never a correct answer; derived from the marks it only knows the marked rows and columns.
+                result.answerKey = grader.compileKey(result.marks);
+            } else if (teacherMarks != null) {
+                result.answerKey = AnswerKey.compile(teacherMarks);
+            } else if (result.marks != null) {
+                result.grade = grader.grade(result.marks, request.answerKey);
+            }
+
+            stage = enter(clock, Stage.RENDER, job, listener, scope);
+            Mat previewMat;
+            if (teacherMarks != null) {
+                previewMat = scope.track(ImageProcessor.drawDetectedCircles(warped, teacherMarks));
+            } else if (result.marks != null) {
+                previewMat = scope.track(ImageProcessor.drawMarks(warped, result.marks));
+            } else {
+                previewMat = warped;
+            }
+            result.preview = Bitmap.createBitmap(previewMat.cols(), previewMat.rows(), Bitmap.Config.ARGB_8888);
+            Utils.matToBitmap(previewMat, result.preview);
+            clock.stop();
+            deliver(job, scope.keep(result.sheetGray), result, listener);
+        } catch (CancellationException e) {
+            // Retaken or left; nobody is waiting for this sheet any more.
+        } catch (PoorQualityException e) {
+            Log.i(TAG, "Photo rejected, " + e.getMessage());
+            mainHandler.post(() -> {
+                if (!job.isCancelled()) listener.onFailed(Stage.CHECK_QUALITY, e);
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Stage " + stage + " failed", e);
+            Stage failed = stage;
+            mainHandler.post(() -> {
+                if (!job.isCancelled()) listener.onFailed(failed, e);
+            });
+        }
+    }
+
+    private Stage enter(StageClock clock, Stage stage, Job job, Listener listener, MatScope scope) {
+        if (job.isCancelled()) {
+            throw new CancellationException();
+        }
+        clock.start(stage.name());
+        scope.setStage(stage.name());
+        mainHandler.post(() -> {
+            if (!job.isCancelled()) listener.onStage(stage);
+        });
+        return stage;
+    }
+
+    // The sheet Mat goes to the listener, or is released if the job was cancelled in the meantime.
+    private void deliver(Job job, Mat sheetGray, SheetResult result, Listener listener) {
+        mainHandler.post(() -> {
+            if (job.isCancelled()) {
+                sheetGray.release();
+                return;
+            }
+            listener.onComplete(result);
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.mcq_grader;
+
+import android.util.Log;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.PipelineMetrics;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+// Class session state: the teacher sheet is processed once into an answer key and every
+// following student sheet is graded against it without re-running the teacher pipeline. The sheet layout
+// picked for the session, if any, is where the teacher sheet is read.
+// The session also owns the PipelineMetrics its sheets and scans are timed into; with a metrics
+// directory set, they are written to a file there when the session ends.
+public class GradingSession {
+    private static final String TAG = "GradingSession";
+    private static GradingSession instance;
+    private volatile PipelineMetrics metrics = new PipelineMetrics();
+    private File metricsDir;
+    private boolean active;
+    private AnswerKey answerKey;
+    private CompiledLayout sheetLayout;
+    // Student number of every sheet graded in the session, by sheet id.
+    private final Map<String, Integer> studentNumbers = new HashMap<>();
+
+    private GradingSession() {}
+
+    // Synchronized: the pipeline thread gets the session's metrics too.
+    public static synchronized GradingSession getInstance() {
+        if (instance == null) {
+            instance = new GradingSession();
+        }
+        return instance;
+    }
+
+    // sheetLayout is the printed sheet of the class, or null to find the teacher's marks by their ink and
+    // derive the layout from them.
+    public void start(CompiledLayout sheetLayout) {
+        finishMetrics();
+        active = true;
+        this.sheetLayout = sheetLayout;
+        answerKey = null;
+        studentNumbers.clear();
+    }
+
+    public void end() {
+        finishMetrics();
+        active = false;
+        sheetLayout = null;
+        answerKey = null;
+        studentNumbers.clear();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public CompiledLayout getSheetLayout() {
+        return sheetLayout;
+    }
+
+    public boolean hasAnswerKey() {
+        return active && answerKey != null;
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public void setAnswerKey(AnswerKey answerKey) {
+        this.answerKey = answerKey;
+    }
+
+    public int getGradedCount() {
+        return studentNumbers.size();
+    }
+
+    // Counts the sheet the first time it is graded and returns its student number; grading the same
+    // sheet again, e.g. when the result screen is recreated, returns the same number.
+    public int onStudentGraded(String sheetId) {
+        Integer number = studentNumbers.get(sheetId);
+        if (number == null) {
+            number = studentNumbers.size() + 1;
+            studentNumbers.put(sheetId, number);
+        }
+        return number;
+    }
+
+    // Timings since the session started, or since the last one ended outside a session.
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Where each session's metrics are written when it ends, or null to only keep them in memory.
+    public void setMetricsDir(File metricsDir) {
+        this.metricsDir = metricsDir;
+    }
+
+    private void finishMetrics() {
+        PipelineMetrics finished = metrics;
+        metrics = new PipelineMetrics();
+        if (metricsDir == null || finished.isEmpty()) return;
+        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        File file = new File(metricsDir, "metrics_" + timeStamp + ".txt");
+        try (Writer out = new FileWriter(file)) {
+            finished.writeTo(out);
+            Log.i(TAG, "Session metrics written to " + file);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write session metrics", e);
+        }
+    }
+}
@@ -1,34 +1,185 @@
 package com.example.mcq_grader;
 
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Bitmap;
+import android.util.LruCache;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.SheetMarks;
+import com.example.mcq_grader.opencv.MatTracker;
+import org.opencv.core.Mat;
+import org.opencv.core.Range;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sheets handed from the capture screens to the confirm and result screens, keyed by sheet id: the
+// teacher sheet of the session and one id per student sheet. Pixels (the preview and the clean gray
+// warp) live in an LRU bounded by bytes and are dropped first when the system is short of memory. Marks
+// and grades are a few hundred bytes per sheet and are kept in their own, count bounded, LRU so a whole
+// class stays graded after its pixels are gone. Safe to use from any thread.
+public final class ImageCache implements ComponentCallbacks2 {
+    public static final String TEACHER_SHEET = "teacher";
+
+    // Share of the heap the sheet pixels may take.
+    private static final int HEAP_FRACTION = 8;
+    private static final int MAX_RECORDS = 256;
+
+    private static final class SheetPixels {
+        final Bitmap preview;
+        final Mat gray;  // may be null
+
+        SheetPixels(Bitmap preview, Mat gray) {
+            this.preview = preview;
+            this.gray = gray;
+        }
+
+        int byteCount() {
+            long bytes = preview != null ? preview.getAllocationByteCount() : 0;
+            if (gray != null) bytes += gray.total() * gray.elemSize();
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+    }
+
+    private static final class SheetRecord {
+        final SheetMarks marks;
+        final GradeResult grade;
+
+        SheetRecord(SheetMarks marks, GradeResult grade) {
+            this.marks = marks;
+            this.grade = grade;
+        }
+    }
 
-public class ImageCache {
     private static ImageCache instance;
-    private Bitmap studentImage;
-    private Bitmap teacherImage;
 
-    private ImageCache() {}
+    private final LruCache<String, SheetPixels> pixels;
+    private final LruCache<String, SheetRecord> records = new LruCache<>(MAX_RECORDS);
+    // Held while a gray sheet is shared out or released, so eviction cannot free it mid-share.
+    private final Object sheetLock = new Object();
+    private final AtomicInteger studentSheets = new AtomicInteger();
+    private volatile String studentSheet;
+    private volatile AnswerKey answerKey;
 
-    public static ImageCache getInstance() {
+    private ImageCache(int maxBytes) {
+        pixels = new LruCache<String, SheetPixels>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, SheetPixels value) {
+                return value.byteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, SheetPixels oldValue, SheetPixels newValue) {
+                if (oldValue.gray != null && (newValue == null || newValue.gray != oldValue.gray)) {
+                    synchronized (sheetLock) {
+                        oldValue.gray.release();
+                    }
+                }
+            }
+        };
+    }
+
+    public static synchronized ImageCache getInstance(Context context) {
         if (instance == null) {
-            instance = new ImageCache();
+            long maxBytes = Runtime.getRuntime().maxMemory() / HEAP_FRACTION;
+            instance = new ImageCache((int) Math.min(maxBytes, Integer.MAX_VALUE));
+            context.getApplicationContext().registerComponentCallbacks(instance);
         }
         return instance;
     }
 
     public Bitmap getStudentImage() {
-        return studentImage;
-    }
-
-    public void setStudentImage(Bitmap studentImage) {
-        this.studentImage = studentImage;
+        return preview(studentSheet);
     }
 
     public Bitmap getTeacherImage() {
-        return teacherImage;
+        return preview(TEACHER_SHEET);
     }
 
     public void setTeacherImage(Bitmap teacherImage) {
-        this.teacherImage = teacherImage;
+        pixels.put(TEACHER_SHEET, new SheetPixels(teacherImage, null));
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public void setAnswerKey(AnswerKey answerKey) {
+        this.answerKey = answerKey;
+    }
+
+    // Stores a processed student sheet under a new id, which becomes the current student sheet.
+    // Takes ownership of the gray sheet. marks and grade are null when the key was not known yet.
+    public String putStudentSheet(Bitmap preview, Mat sheetGray, SheetMarks marks, GradeResult grade) {
+        String id = "student-" + studentSheets.incrementAndGet();
+        MatTracker.untrack(sheetGray);
+        pixels.put(id, new SheetPixels(preview, sheetGray));
+        if (marks != null) {
+            records.put(id, new SheetRecord(marks, grade));
+        }
+        studentSheet = id;
+        return id;
+    }
+
+    // The clean gray warp of the current student sheet as a new header on the cached pixels, which the
+    // caller releases; the pixels stay valid if the cache evicts the sheet meanwhile. Null when evicted.
+    public Mat getStudentSheet() {
+        String id = studentSheet;
+        if (id == null) return null;
+        synchronized (sheetLock) {
+            SheetPixels entry = pixels.get(id);
+            return entry != null && entry.gray != null ? new Mat(entry.gray, Range.all()) : null;
+        }
+    }
+
+    public SheetMarks getStudentMarks() {
+        SheetRecord record = record(studentSheet);
+        return record != null ? record.marks : null;
+    }
+
+    public GradeResult getStudentResult() {
+        SheetRecord record = record(studentSheet);
+        return record != null ? record.grade : null;
+    }
+
+    public String getStudentSheetId() {
+        return studentSheet;
+    }
+
+    // Keeps the marks and grade of a sheet graded after it was stored, e.g. on the result screen.
+    public void putResult(String sheetId, SheetMarks marks, GradeResult grade) {
+        records.put(sheetId, new SheetRecord(marks, grade));
+    }
+
+    private Bitmap preview(String id) {
+        if (id == null) return null;
+        SheetPixels entry = pixels.get(id);
+        return entry != null ? entry.preview : null;
+    }
+
+    private SheetRecord record(String id) {
+        return id != null ? records.get(id) : null;
+    }
+
+    // Screens already showing a sheet keep their own references, so dropping pixels here only costs a
+    // retake if the user goes back to a sheet that was evicted. Results are never trimmed.
+    // UI_HIDDEN and BACKGROUND are not memory pressure: they come with every trip to the camera app, which
+    // is exactly when the cached sheets are about to be needed again, so they keep everything.
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            pixels.evictAll();
+        } else if (level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            pixels.trimToSize(pixels.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        pixels.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
     }
 }
@@ -0,0 +1,130 @@
+package com.example.mcq_grader;
+
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+// Sits between the camera and a detector that may be slower than the frame rate. The camera thread
+// offers every frame and never waits; the detector runs on its own executor, always on the newest frame,
+// and frames offered while it is busy overwrite each other instead of queueing. Frames are copied into
+// at most three recycled buffers (pending, detecting, spare).
+//
+// The detection rate follows the measured detector latency: a new frame is only taken once
+// latency / DUTY_CYCLE has passed since the last detection started, so detection uses at most about half
+// a core on slow devices and every result is for a frame at most one detection interval old.
+final class LatestFrameScheduler<F> {
+    private static final double DUTY_CYCLE = 0.5;
+    // Weight of the newest latency sample in the running average.
+    private static final double SMOOTHING = 0.2;
+
+    interface Frames<F> {
+        // Copies src into reuse, which may be null or a buffer of an earlier frame, and returns the copy.
+        F copy(F src, F reuse);
+
+        void release(F frame);
+    }
+
+    interface Detector<F> {
+        void detect(F frame);
+    }
+
+    private final Frames<F> frames;
+    private final Detector<F> detector;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    // All guarded by this.
+    private F pending;
+    private F spare;
+    private boolean running;
+    private boolean closed;
+    private long lastStart;
+    private double latencyNanos;
+    private int dropped;
+
+    LatestFrameScheduler(Frames<F> frames, Detector<F> detector, Executor executor) {
+        this(frames, detector, executor, System::nanoTime);
+    }
+
+    LatestFrameScheduler(Frames<F> frames, Detector<F> detector, Executor executor, LongSupplier clock) {
+        this.frames = frames;
+        this.detector = detector;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    // Called on the camera thread. Returns false if the frame was skipped to hold the detection rate.
+    synchronized boolean offer(F frame) {
+        if (closed) return false;
+        if (latencyNanos > 0 && clock.getAsLong() - lastStart < latencyNanos / DUTY_CYCLE) {
+            dropped++;
+            return false;
+        }
+        if (pending != null) {
+            dropped++;  // never detected, overwritten by this one
+            pending = frames.copy(frame, pending);
+        } else {
+            pending = frames.copy(frame, spare);
+            spare = null;
+        }
+        if (!running) {
+            running = true;
+            executor.execute(this::drain);
+        }
+        return true;
+    }
+
+    private void drain() {
+        while (true) {
+            F frame;
+            long start;
+            synchronized (this) {
+                if (closed || pending == null) {
+                    running = false;
+                    return;
+                }
+                frame = pending;
+                pending = null;
+                start = clock.getAsLong();
+                lastStart = start;
+            }
+            boolean detected = false;
+            try {
+                detector.detect(frame);
+                detected = true;
+            } finally {
+                synchronized (this) {
+                    long latency = clock.getAsLong() - start;
+                    latencyNanos = latencyNanos == 0 ? latency : latencyNanos + SMOOTHING * (latency - latencyNanos);
+                    // A frame offered during the detection may have found no spare and copied into a new
+                    // buffer; then one buffer too many is left over.
+                    if (closed || spare != null) {
+                        frames.release(frame);
+                    } else {
+                        spare = frame;
+                    }
+                    // A failed detection ends this run; the next frame offered starts a new one.
+                    if (!detected) running = false;
+                }
+            }
+        }
+    }
+
+    // Average detection latency so far, in nanoseconds.
+    synchronized long getLatencyNanos() {
+        return (long) latencyNanos;
+    }
+
+    // Frames offered but never detected.
+    synchronized int getDropped() {
+        return dropped;
+    }
+
+    // Stops taking frames and releases the buffers; a detection in progress releases its own when done.
+    synchronized void close() {
+        closed = true;
+        if (pending != null) frames.release(pending);
+        if (spare != null) frames.release(spare);
+        pending = null;
+        spare = null;
+    }
+}
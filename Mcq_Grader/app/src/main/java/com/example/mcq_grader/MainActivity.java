@@ -1,14 +1,25 @@
 package com.example.mcq_grader;
 
 import android.app.Activity;
+import android.app.AlertDialog;
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.Button;
+import android.widget.Toast;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.SheetLayout;
 import org.opencv.android.OpenCVLoader;
+import java.io.File;
+import java.io.IOException;
 
 public class MainActivity extends Activity {
     private static final String TAG = "MainActivity";
+    // Printed sheets a class session can be graded on, as question and option counts of
+    // SheetLayout.standard. Other sheets have their layout derived from the teacher's marks.
+    private static final int[][] SHEET_FORMATS = {{20, 4}, {20, 5}, {30, 4}, {40, 4}, {40, 5}, {50, 5}};
     static {
         if (!OpenCVLoader.initDebug()) {
             Log.e(TAG, "OpenCV initialization failed!");
@@ -21,15 +32,63 @@ public class MainActivity extends Activity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        // Debug builds keep the stage timings of every session.
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            GradingSession.getInstance().setMetricsDir(getExternalFilesDir("metrics"));
+        }
 
         Button btnStudent = findViewById(R.id.btn_student);
         Button btnTeacher = findViewById(R.id.btn_teacher);
+        Button btnSession = findViewById(R.id.btn_session);
+        Button btnSessionSavedKey = findViewById(R.id.btn_session_saved_key);
+
+        btnStudent.setOnClickListener(v -> {
+            GradingSession.getInstance().end();
+            startActivity(new Intent(MainActivity.this, StudentImageActivity.class));
+        });
+        btnTeacher.setOnClickListener(v -> {
+            GradingSession.getInstance().end();
+            startActivity(new Intent(MainActivity.this, TeacherImageActivity.class));
+        });
+        // Class session: the sheet layout, then the teacher key, then student after student against the
+        // same key.
+        btnSession.setOnClickListener(v -> pickSheetLayout());
+        // Class session with the key saved by the previous session, no teacher sheet needed.
+        btnSessionSavedKey.setOnClickListener(v -> {
+            File keyFile = new File(getFilesDir(), AnswerKey.FILE_NAME);
+            if (!keyFile.exists()) {
+                Toast.makeText(this, "No saved answer key found", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            try {
+                AnswerKey key = AnswerKey.load(keyFile);
+                // The key brings its own layout: the one saved with it, or the one of its bubbles.
+                GradingSession.getInstance().start(key.getLayout());
+                GradingSession.getInstance().setAnswerKey(key);
+                startActivity(new Intent(MainActivity.this, StudentImageActivity.class));
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading answer key", e);
+                Toast.makeText(this, "Could not load saved answer key", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
-        btnStudent.setOnClickListener(v ->
-                startActivity(new Intent(MainActivity.this, StudentImageActivity.class))
-        );
-        btnTeacher.setOnClickListener(v ->
-                startActivity(new Intent(MainActivity.this, TeacherImageActivity.class))
-        );
+    private void pickSheetLayout() {
+        String[] names = new String[SHEET_FORMATS.length + 1];
+        for (int i = 0; i < SHEET_FORMATS.length; i++) {
+            int options = SHEET_FORMATS[i][1];
+            names[i] = SHEET_FORMATS[i][0] + " questions, A\u2013" + (char) ('A' + options - 1);
+        }
+        names[SHEET_FORMATS.length] = "Other sheet: find the bubbles from the key";
+        new AlertDialog.Builder(this)
+                .setTitle("Answer sheet")
+                .setItems(names, (dialog, which) -> {
+                    CompiledLayout layout = which < SHEET_FORMATS.length
+                            ? SheetLayout.standard(SHEET_FORMATS[which][0], SHEET_FORMATS[which][1]).compile()
+                            : null;
+                    GradingSession.getInstance().start(layout);
+                    startActivity(new Intent(MainActivity.this, TeacherImageActivity.class));
+                })
+                .show();
     }
 }
@@ -1,17 +1,38 @@
 package com.example.mcq_grader;
 
 import android.app.Activity;
+import android.content.Intent;
 import android.graphics.Bitmap;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
 import android.widget.TextView;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.LayoutGrader;
+import com.example.mcq_grader.core.SheetMarks;
+import com.example.mcq_grader.opencv.ImageProcessor;
+import com.example.mcq_grader.opencv.MatScope;
+import com.example.mcq_grader.opencv.MatTracker;
+import com.example.mcq_grader.opencv.OpenCvGrader;
 import com.github.chrisbanes.photoview.PhotoView;
 import org.opencv.android.Utils;
 import org.opencv.core.Mat;
-import org.opencv.core.Point;
 import org.opencv.imgproc.Imgproc;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ResultActivity extends Activity {
+    private static final String TAG = "ResultActivity";
+    // Grading jobs run one at a time off the main thread; results are posted back through mainHandler.
+    private static final ExecutorService GRADING_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Future<?> gradingJob;
     private PhotoView teacherImageView, gradedImageView;
     private TextView resultTextView;
 
@@ -24,38 +45,126 @@ public class ResultActivity extends Activity {
         gradedImageView = findViewById(R.id.graded_image_view);
         resultTextView = findViewById(R.id.result_text_view);
 
-        Bitmap teacherBitmap = ImageCache.getInstance().getTeacherImage();
-        Bitmap studentBitmap = ImageCache.getInstance().getStudentImage();
+        GradingSession session = GradingSession.getInstance();
+        ImageCache cache = ImageCache.getInstance(this);
+        Bitmap teacherBitmap = cache.getTeacherImage();
+        Bitmap studentBitmap = cache.getStudentImage();
 
+        // Show the sheets straight away; the score and then the graded overlay arrive from the job.
         teacherImageView.setImageBitmap(teacherBitmap);
+        gradedImageView.setImageBitmap(studentBitmap);
+        resultTextView.setText("Grading\u2026");
+        setupSessionButtons(session);
 
-        Mat teacherMat = new Mat();
-        Mat studentMat = new Mat();
-        Utils.bitmapToMat(teacherBitmap, teacherMat);
-        Utils.bitmapToMat(studentBitmap, studentMat);
+        AnswerKey answerKey = session.hasAnswerKey()
+                ? session.getAnswerKey()
+                : cache.getAnswerKey();
+        String sheetId = cache.getStudentSheetId();
+        GradeResult cachedResult = cache.getStudentResult();
+        SheetMarks cachedMarks = cache.getStudentMarks();
+        Mat studentSheet = cache.getStudentSheet();
+        gradingJob = GRADING_EXECUTOR.submit(() -> {
+            try (MatScope scope = MatScope.open("grade")) {
+                scope.track(studentSheet);
+                grade(scope, cache, sheetId, answerKey, cachedResult, cachedMarks, studentSheet, studentBitmap);
+            }
+            reportLiveMats();
+        });
+    }
 
-        List<Point> teacherCircles = ImageProcessor.detectFilledCircles(teacherMat);
-        List<Point> studentCircles = ImageProcessor.detectFilledCircles(studentMat);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        gradingJob.cancel(true);
+        mainHandler.removeCallbacksAndMessages(null);
+    }
 
-        int correct = 0;
-        double threshold = 50;
-        for (Point s : studentCircles) {
-            for (Point t : teacherCircles) {
-                if (Math.hypot(s.x - t.x, s.y - t.y) < threshold) {
-                    correct++;
-                    break;
+    // Runs on the grading executor. The key was compiled once when the teacher sheet was processed. The
+    // student sheet was already read and scored by the pipeline when the key was known; otherwise it
+    // is read here, once, from the clean sheet, and the result is kept in the cache.
+    private void grade(MatScope scope, ImageCache cache, String sheetId, AnswerKey answerKey, GradeResult cachedResult,
+                       SheetMarks studentMarks, Mat studentSheet, Bitmap studentBitmap) {
+        GradeResult result = cachedResult;
+        if (result == null || result.getKey() != answerKey) {
+            LayoutGrader<Mat> grader = OpenCvGrader.threadLayoutGrader();
+            if (studentMarks == null || studentMarks.getLayout() != answerKey.getLayout()) {
+                if (studentSheet == null) {
+                    // Evicted under memory pressure before it could be read.
+                    mainHandler.post(() -> resultTextView.setText("Sheet no longer available, please retake it"));
+                    return;
                 }
+                studentMarks = grader.readSheet(studentSheet, answerKey.getLayout());
             }
+            result = grader.grade(studentMarks, answerKey);
+            cache.putResult(sheetId, studentMarks, result);
         }
-        int total = teacherCircles.size();
-        String text = correct + " / " + total + " correct";
-        resultTextView.setText(text);
+        String text = result.getSummary();
+        mainHandler.post(() -> showScore(sheetId, text));
+        if (studentBitmap == null || Thread.currentThread().isInterrupted()) return;
 
-        Mat gradedMat = ImageProcessor.compareCircles(teacherCircles, studentCircles, studentMat);
+        // Timed like the pipeline's own RENDER stage, so the metrics cover both places the overlay is drawn.
+        StageClock clock = new StageClock(GradingSession.getInstance().getMetrics());
+        clock.start(GradingPipeline.Stage.RENDER.name());
+        Mat studentMat = scope.mat();
+        Utils.bitmapToMat(studentBitmap, studentMat);
+        Mat gradedMat = scope.track(ImageProcessor.compareCircles(result, studentMat));
         Imgproc.putText(gradedMat, text, new org.opencv.core.Point(gradedMat.cols() - 400, 50),
                 Imgproc.FONT_HERSHEY_SIMPLEX, 1.2, new org.opencv.core.Scalar(0, 0, 255), 3);
         Bitmap gradedBitmap = Bitmap.createBitmap(gradedMat.cols(), gradedMat.rows(), Bitmap.Config.ARGB_8888);
         Utils.matToBitmap(gradedMat, gradedBitmap);
-        gradedImageView.setImageBitmap(gradedBitmap);
+        clock.stop();
+        mainHandler.post(() -> gradedImageView.setImageBitmap(gradedBitmap));
+    }
+
+    // Debug builds: once a sheet is graded, every Mat of its pipeline run and grading should be released
+    // or owned by ImageCache. Mats of a photo already being processed for the next sheet show up too.
+    private static void reportLiveMats() {
+        if (!MatTracker.isEnabled()) return;
+        MatTracker.Report report = MatTracker.checkpoint();
+        if (report.isEmpty()) {
+            Log.d(TAG, "No live Mats after grading");
+        } else {
+            Log.w(TAG, "Live Mats after grading: " + report);
+        }
+    }
+
+    private void showScore(String sheetId, String text) {
+        GradingSession session = GradingSession.getInstance();
+        if (session.isActive()) {
+            resultTextView.setText("Student " + session.onStudentGraded(sheetId) + ": " + text);
+            findViewById(R.id.btn_next_student).setEnabled(true);
+        } else {
+            resultTextView.setText(text);
+        }
+    }
+
+    private void setupSessionButtons(GradingSession session) {
+        View sessionButtons = findViewById(R.id.session_buttons);
+        if (!session.isActive()) {
+            sessionButtons.setVisibility(View.GONE);
+            return;
+        }
+        sessionButtons.setVisibility(View.VISIBLE);
+
+        Button btnNextStudent = findViewById(R.id.btn_next_student);
+        Button btnEndSession = findViewById(R.id.btn_end_session);
+        // Enabled once the score is in, so every student is counted before moving on.
+        btnNextStudent.setEnabled(false);
+
+        // Return to the existing capture screen instead of stacking a new one per student.
+        btnNextStudent.setOnClickListener(v -> {
+            Intent intent = new Intent(ResultActivity.this, StudentImageActivity.class);
+            intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+            startActivity(intent);
+            finish();
+        });
+
+        btnEndSession.setOnClickListener(v -> {
+            session.end();
+            Intent intent = new Intent(ResultActivity.this, MainActivity.class);
+            intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+            startActivity(intent);
+            finish();
+        });
     }
 }
@@ -0,0 +1,249 @@
+package com.example.mcq_grader;
+
+import android.content.pm.ApplicationInfo;
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.view.WindowManager;
+import android.widget.TextView;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.CornerStability;
+import com.example.mcq_grader.core.Geometry;
+import com.example.mcq_grader.core.PipelineMetrics;
+import com.example.mcq_grader.core.SheetMarks;
+import com.example.mcq_grader.opencv.CornerTracker;
+import com.example.mcq_grader.opencv.FrameQuality;
+import com.example.mcq_grader.opencv.ImageProcessor;
+import com.example.mcq_grader.opencv.OpenCvGrader;
+import org.opencv.android.CameraActivity;
+import org.opencv.android.CameraBridgeViewBase;
+import org.opencv.android.CameraGLSurfaceView;
+import org.opencv.android.Utils;
+import org.opencv.core.Mat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Live scanning: the preview goes straight from the camera to the screen through a GL texture, and the
+// sheet outline is searched on the frames' gray plane and drawn as a vector ScanOverlayView on top, so no
+// preview frame is converted to RGBA or uploaded as a bitmap. Detection runs on its own thread behind a
+// LatestFrameScheduler, so the preview keeps the camera frame rate however long it takes. Once found, the
+// corners are followed by a CornerTracker and the full outline search only runs again when tracking is
+// lost. Once the corners hold still for CornerStability's frames, the sharpest of the next BURST frames is
+// captured as it is and handed back to the capture screen, which feeds it straight into the
+// GradingPipeline: no JPEG, no file. If none of them passes FrameQuality, another burst is taken.
+// When the session knows the sheet layout (from the key, or the printed sheet picked for the class), the
+// sheet is warped and read on the detection thread too, and the overlay shows which bubbles read as marked.
+// Detection and the quality checks are timed into the session's PipelineMetrics, which debug builds show
+// over the preview.
+public class ScanActivity extends CameraActivity implements CameraGLSurfaceView.CameraFrameListener {
+    // The captured frame, from onCameraFrame to the capture screen's onActivityResult.
+    private static final AtomicReference<Bitmap> CAPTURED = new AtomicReference<>();
+    // Frames measured once the sheet is still, to capture the best of.
+    private static final int BURST = 5;
+    private static final long DEBUG_TEXT_INTERVAL = 1_000_000_000L;
+
+    private static final LatestFrameScheduler.Frames<Mat> GRAY_FRAMES = new LatestFrameScheduler.Frames<Mat>() {
+        @Override
+        public Mat copy(Mat src, Mat reuse) {
+            Mat dst = reuse != null ? reuse : new Mat();
+            src.copyTo(dst);
+            return dst;
+        }
+
+        @Override
+        public void release(Mat frame) {
+            frame.release();
+        }
+    };
+
+    private final ExecutorService detectionExecutor = Executors.newSingleThreadExecutor();
+    private final LatestFrameScheduler<Mat> scheduler =
+            new LatestFrameScheduler<>(GRAY_FRAMES, this::detect, detectionExecutor);
+    private CameraGLSurfaceView cameraView;
+    private ScanOverlayView overlayView;
+    private TextView statusView;
+    private PipelineMetrics metrics;
+    private boolean debug;
+    // Touched on the detection thread only.
+    private final CornerTracker tracker = new CornerTracker();
+    private final CornerStability stability = new CornerStability();
+    private boolean sheetInView;
+    private StageClock detectClock;
+    // Layout the bubbles are read at, or null to only show the outline. Set before the first frame.
+    private CompiledLayout layout;
+    private final Mat sheetGray = new Mat();
+    private double[] centers;
+    private long lastDebugText;
+    // Latest detection for the camera thread: whether the corners are still enough to capture.
+    private volatile boolean still;
+    private volatile boolean captured;
+    // The burst, touched on the camera thread only.
+    private final Mat bestFrame = new Mat();
+    private FrameQuality bestQuality;
+    private int burstFrames;
+    private StageClock qualityClock;
+
+    // The frame captured by the last scan, or null. It can be taken once.
+    public static Bitmap takeCapture() {
+        return CAPTURED.getAndSet(null);
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+        setContentView(R.layout.activity_scan);
+
+        cameraView = findViewById(R.id.scan_camera_view);
+        overlayView = findViewById(R.id.scan_overlay);
+        statusView = findViewById(R.id.scan_status);
+        metrics = GradingSession.getInstance().getMetrics();
+        detectClock = new StageClock(metrics);
+        GradingSession session = GradingSession.getInstance();
+        layout = session.hasAnswerKey() ? session.getAnswerKey().getLayout() : session.getSheetLayout();
+        if (layout != null) {
+            centers = new double[layout.getCellCount() * 2];
+            for (int cell = 0; cell < layout.getCellCount(); cell++) {
+                centers[cell * 2] = layout.getCenterX(cell);
+                centers[cell * 2 + 1] = layout.getCenterY(cell);
+            }
+        }
+        qualityClock = new StageClock(metrics);
+        debug = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        cameraView.setCameraIndex(CameraBridgeViewBase.CAMERA_ID_BACK);
+        cameraView.setCameraFrameListener(this);
+        // Started once the camera permission is there.
+        cameraView.disableView();
+        findViewById(R.id.btn_scan_cancel).setOnClickListener(v -> finish());
+        statusView.setText("Point the camera at the sheet");
+    }
+
+    @Override
+    protected void onCameraPermissionGranted() {
+        // The renderer starts the camera from the GL thread.
+        cameraView.queueEvent(cameraView::enableView);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        overlayView.setOutline(null, 0, 0, false);
+        overlayView.setBubbles(null, null, 0);
+        // The corners have to be found and hold still again before a burst: nothing from before the
+        // pause counts. Cleared here for the camera thread, and again on the detection thread behind any
+        // detection still finishing.
+        still = false;
+        detectionExecutor.execute(() -> {
+            tracker.reset();
+            stability.reset();
+            still = false;
+        });
+        bestQuality = null;
+        burstFrames = 0;
+        cameraView.onResume();
+    }
+
+    @Override
+    protected void onPause() {
+        // Stops the camera thread, so the burst is left alone from here on.
+        cameraView.onPause();
+        bestFrame.release();
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        scheduler.close();
+        // Queued behind any detection still running.
+        detectionExecutor.execute(() -> {
+            tracker.release();
+            sheetGray.release();
+        });
+        detectionExecutor.shutdown();
+    }
+
+    // Runs on the camera thread, and only hands the gray frame over; the preview itself never leaves the
+    // GPU. Only the frames of the burst that beat the best so far are converted to RGBA.
+    @Override
+    public void onCameraFrame(CameraBridgeViewBase.CvCameraViewFrame frame) {
+        if (captured) return;
+        if (!still) {
+            bestQuality = null;
+            burstFrames = 0;
+            scheduler.offer(frame.gray());
+            return;
+        }
+
+        qualityClock.start("SCAN_QUALITY");
+        FrameQuality quality = FrameQuality.measure(frame.gray());
+        qualityClock.stop();
+        if (quality.isBetterThan(bestQuality)) {
+            bestQuality = quality;
+            frame.rgba().copyTo(bestFrame);
+        }
+        if (++burstFrames < BURST) return;
+
+        if (!bestQuality.isAcceptable()) {
+            showProblem(bestQuality.getProblem());
+            bestQuality = null;
+            burstFrames = 0;
+            return;
+        }
+        captured = true;
+        Bitmap bitmap = Bitmap.createBitmap(bestFrame.cols(), bestFrame.rows(), Bitmap.Config.ARGB_8888);
+        Utils.matToBitmap(bestFrame, bitmap);
+        CAPTURED.set(bitmap);
+        runOnUiThread(() -> {
+            setResult(RESULT_OK);
+            finish();
+        });
+    }
+
+    // Runs on the detection thread, on the newest gray frame.
+    private void detect(Mat gray) {
+        detectClock.start("SCAN_DETECT");
+        double[] corners = tracker.update(gray);
+        still = stability.update(corners, gray.cols(), gray.rows());
+        detectClock.stop();
+        overlayView.setOutline(corners, gray.cols(), gray.rows(), stability.getStillFrames() > 0);
+        if (layout != null) {
+            showBubbles(gray, corners);
+        }
+        showSheetInView(corners != null);
+        long now = System.nanoTime();
+        if (debug && now - lastDebugText > DEBUG_TEXT_INTERVAL) {
+            lastDebugText = now;
+            overlayView.setDebugText(metrics.summary());
+        }
+    }
+
+    // Reads the sheet in the frame at the layout and hands the bubbles, mapped back into the frame, to the
+    // overlay.
+    private void showBubbles(Mat gray, double[] corners) {
+        if (corners == null) {
+            overlayView.setBubbles(null, null, 0);
+            return;
+        }
+        detectClock.start("SCAN_READ");
+        double[] toFrame = ImageProcessor.warpSheet(gray, corners, sheetGray);
+        SheetMarks marks = OpenCvGrader.threadLayoutGrader().readSheet(sheetGray, layout);
+        detectClock.stop();
+        overlayView.setBubbles(Geometry.transform(toFrame, centers), marks.getMarkedOptions(),
+                layout.getOptionCount());
+    }
+
+    // Only posts to the main thread when the status actually changes.
+    private void showSheetInView(boolean inView) {
+        if (inView == sheetInView) return;
+        sheetInView = inView;
+        runOnUiThread(() -> statusView.setText(inView ? "Hold still…" : "Point the camera at the sheet"));
+    }
+
+    private void showProblem(FrameQuality.Problem problem) {
+        String text = problem == FrameQuality.Problem.TOO_DARK ? "Too dark, more light please"
+                : problem == FrameQuality.Problem.TOO_BRIGHT ? "Too bright, avoid the glare"
+                : "Blurry, hold still…";
+        runOnUiThread(() -> statusView.setText(text));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.mcq_grader;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+// Draws the live detection over the camera preview as a vector outline, so the preview frames themselves
+// are never drawn into or read back. Corners are in frame pixels; the GL preview stretches the frame over
+// the whole view, so they are scaled the same way. When the session knows the sheet layout, every bubble
+// read from the latest frame is drawn too: filled when marked, outlined when not. Debug builds also show
+// the latest stage timings.
+public class ScanOverlayView extends View {
+    private static final int SEARCHING = Color.rgb(255, 200, 0);
+    private static final int STILL = Color.rgb(0, 255, 0);
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path path = new Path();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bubblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float bubbleRadius;
+    // Guarded by this: set on the detection thread, drawn on the main thread.
+    private final float[] corners = new float[8];
+    private boolean hasOutline;
+    private boolean settling;
+    private int frameWidth;
+    private int frameHeight;
+    // Bubble centers as x, y pairs in frame pixels, and whether each one is marked.
+    private float[] bubbles = new float[0];
+    private boolean[] marked = new boolean[0];
+    private int bubbleCount;
+    private String[] debugLines;
+
+    public ScanOverlayView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeWidth(3 * getResources().getDisplayMetrics().density);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTypeface(Typeface.MONOSPACE);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 8,
+                getResources().getDisplayMetrics()));
+        textPaint.setShadowLayer(2, 0, 0, Color.BLACK);
+        bubblePaint.setStrokeWidth(getResources().getDisplayMetrics().density);
+        bubbleRadius = 3 * getResources().getDisplayMetrics().density;
+    }
+
+    // Corners as 8 doubles (see Geometry) in a frame of the given size, or null to clear the outline.
+    // Safe to call from any thread.
+    public void setOutline(double[] quad, int width, int height, boolean settling) {
+        synchronized (this) {
+            hasOutline = quad != null;
+            if (hasOutline) {
+                for (int i = 0; i < 8; i++) corners[i] = (float) quad[i];
+            }
+            this.settling = settling;
+            frameWidth = width;
+            frameHeight = height;
+        }
+        postInvalidate();
+    }
+
+    // Bubble centers as x, y pairs in the frame of the outline, with the marked options of every question
+    // (see SheetMarks.getMarkedOptions), or null to clear them. Safe to call from any thread.
+    public void setBubbles(double[] centers, long[] markedOptions, int optionCount) {
+        synchronized (this) {
+            bubbleCount = centers != null ? centers.length / 2 : 0;
+            if (bubbles.length < bubbleCount * 2) {
+                bubbles = new float[bubbleCount * 2];
+                marked = new boolean[bubbleCount];
+            }
+            for (int i = 0; i < bubbleCount; i++) {
+                bubbles[i * 2] = (float) centers[i * 2];
+                bubbles[i * 2 + 1] = (float) centers[i * 2 + 1];
+                marked[i] = (markedOptions[i / optionCount] & (1L << (i % optionCount))) != 0;
+            }
+        }
+        postInvalidate();
+    }
+
+    // Lines of text drawn under the status bar, or null for none. Safe to call from any thread.
+    public void setDebugText(String text) {
+        synchronized (this) {
+            debugLines = text != null ? text.split("\n") : null;
+        }
+        postInvalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        synchronized (this) {
+            if (debugLines != null) {
+                float line = textPaint.getFontSpacing();
+                float y = 64 * getResources().getDisplayMetrics().density;
+                for (String text : debugLines) {
+                    y += line;
+                    canvas.drawText(text, line / 2, y, textPaint);
+                }
+            }
+            if (!hasOutline || frameWidth == 0 || frameHeight == 0) return;
+            float sx = (float) getWidth() / frameWidth;
+            float sy = (float) getHeight() / frameHeight;
+            path.rewind();
+            path.moveTo(corners[0] * sx, corners[1] * sy);
+            for (int i = 1; i < 4; i++) {
+                path.lineTo(corners[i * 2] * sx, corners[i * 2 + 1] * sy);
+            }
+            path.close();
+            paint.setColor(settling ? STILL : SEARCHING);
+            canvas.drawPath(path, paint);
+            bubblePaint.setColor(paint.getColor());
+            for (int i = 0; i < bubbleCount; i++) {
+                bubblePaint.setStyle(marked[i] ? Paint.Style.FILL : Paint.Style.STROKE);
+                canvas.drawCircle(bubbles[i * 2] * sx, bubbles[i * 2 + 1] * sy, bubbleRadius, bubblePaint);
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.mcq_grader;
+
+import android.Manifest;
+import android.app.Activity;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Environment;
+import android.provider.MediaStore;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.opencv.FrameQuality;
+import com.github.chrisbanes.photoview.PhotoView;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
+
+// Shared screen logic of the teacher and student capture activities: take, scan or pick a photo, let the
+// user rotate or flip it, and run it through the GradingPipeline. Processing starts speculatively as soon as
+// a photo arrives and restarts on every rotate or flip, so Next usually finds the result ready and
+// otherwise just waits for the job already running. A new photo or leaving the screen cancels it.
+public abstract class SheetCaptureActivity extends Activity implements GradingPipeline.Listener {
+    private static final String TAG = "SheetCaptureActivity";
+    private static final int REQUEST_CAMERA = 1;
+    private static final int REQUEST_GALLERY = 2;
+    private static final int REQUEST_SCAN = 3;
+
+    private Uri photoURI;
+    private Bitmap sheetBitmap;
+    private SheetOrientation orientation = SheetOrientation.NORMAL;
+    private PhotoView imageView;
+    private TextView statusView;
+    private Button btnNext;
+    private GradingPipeline.Job job;
+    // Result of the current photo, finished before Next was tapped.
+    private SheetResult pendingResult;
+    private boolean awaitingNext;
+
+    // File name prefix of the photos taken with the camera.
+    protected abstract String photoPrefix();
+
+    protected abstract GradingPipeline.Role role();
+
+    // Key to read the sheet against, if it is known when the sheet is processed.
+    protected AnswerKey answerKey() {
+        return null;
+    }
+
+    // Printed sheet layout to compile the key against, for a teacher sheet; null derives it from the marks.
+    protected CompiledLayout sheetLayout() {
+        return null;
+    }
+
+    // The pipeline finished with this sheet; the subclass stores what it needs and moves on.
+    protected abstract void onSheetProcessed(SheetResult result);
+
+    protected void initCapture(PhotoView imageView, TextView statusView, Button btnCamera, Button btnScan,
+                               Button btnGallery, Button btnRotate, Button btnFlip, Button btnNext) {
+        this.imageView = imageView;
+        this.statusView = statusView;
+        this.btnNext = btnNext;
+
+        btnCamera.setOnClickListener(v -> {
+            if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+                ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, REQUEST_CAMERA);
+            } else {
+                dispatchTakePictureIntent();
+            }
+        });
+
+        // ScanActivity asks for the camera permission itself.
+        btnScan.setOnClickListener(v -> startActivityForResult(new Intent(this, ScanActivity.class), REQUEST_SCAN));
+
+        btnGallery.setOnClickListener(v -> {
+            if (ContextCompat.checkSelfPermission(this, Manifest.permission.READ_EXTERNAL_STORAGE) != PackageManager.PERMISSION_GRANTED) {
+                ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.READ_EXTERNAL_STORAGE}, REQUEST_GALLERY);
+            } else {
+                launchGallery();
+            }
+        });
+
+        // The running or finished result is for the old orientation: start over from the new bitmap.
+        btnRotate.setOnClickListener(v -> {
+            if (sheetBitmap != null) {
+                orientation = orientation.rotate();
+                showPhoto();
+                start(GradingPipeline.Request.process(role(), sheetBitmap, orientation, answerKey(), sheetLayout()));
+            }
+        });
+
+        btnFlip.setOnClickListener(v -> {
+            if (sheetBitmap != null) {
+                orientation = orientation.flip();
+                showPhoto();
+                start(GradingPipeline.Request.process(role(), sheetBitmap, orientation, answerKey(), sheetLayout()));
+            }
+        });
+
+        btnNext.setOnClickListener(v -> {
+            if (pendingResult != null) {
+                SheetResult result = pendingResult;
+                pendingResult = null;
+                onSheetProcessed(result);
+            } else if (job != null) {
+                awaitingNext = true;
+                btnNext.setEnabled(false);
+            } else if (sheetBitmap != null) {
+                // The speculative run failed; try again and wait for it this time.
+                start(GradingPipeline.Request.process(role(), sheetBitmap, orientation, answerKey(), sheetLayout()));
+                awaitingNext = true;
+                btnNext.setEnabled(false);
+            } else {
+                Toast.makeText(this, "Please capture or select an image", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Drops the current photo, e.g. when the screen is brought back for the next student.
+    protected void resetCapture() {
+        discard();
+        sheetBitmap = null;
+        orientation = SheetOrientation.NORMAL;
+        imageView.setImageDrawable(null);
+        imageView.setScaleX(1);
+        statusView.setText(null);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        discard();
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (grantResults.length == 0 || grantResults[0] != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        if (requestCode == REQUEST_CAMERA) {
+            dispatchTakePictureIntent();
+        } else if (requestCode == REQUEST_GALLERY) {
+            launchGallery();
+        }
+    }
+
+    private void dispatchTakePictureIntent() {
+        Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
+        if (takePictureIntent.resolveActivity(getPackageManager()) != null) {
+            File photoFile;
+            try {
+                photoFile = createImageFile();
+            } catch (IOException ex) {
+                Log.e(TAG, "Error creating image file", ex);
+                Toast.makeText(this, "Could not create file for image", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            photoURI = FileProvider.getUriForFile(this, "com.example.mcq_grader.fileprovider", photoFile);
+            takePictureIntent.putExtra(MediaStore.EXTRA_OUTPUT, photoURI);
+            startActivityForResult(takePictureIntent, REQUEST_CAMERA);
+        }
+    }
+
+    private File createImageFile() throws IOException {
+        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String imageFileName = photoPrefix() + "_" + timeStamp + "_";
+        File storageDir = getExternalFilesDir(Environment.DIRECTORY_PICTURES);
+        return File.createTempFile(imageFileName, ".jpg", storageDir);
+    }
+
+    private void launchGallery() {
+        Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
+        startActivityForResult(intent, REQUEST_GALLERY);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        if (resultCode == RESULT_OK) {
+            if (requestCode == REQUEST_CAMERA) {
+                capture(photoURI);
+            } else if (requestCode == REQUEST_GALLERY && data != null) {
+                capture(data.getData());
+            } else if (requestCode == REQUEST_SCAN) {
+                Bitmap frame = ScanActivity.takeCapture();
+                if (frame != null) {
+                    scanned(frame);
+                }
+            }
+        }
+        super.onActivityResult(requestCode, resultCode, data);
+    }
+
+    // Decoding included, the whole pipeline starts now; the photo shows up once it is decoded.
+    private void capture(Uri source) {
+        sheetBitmap = null;
+        orientation = SheetOrientation.NORMAL;
+        imageView.setImageDrawable(null);
+        start(GradingPipeline.Request.capture(role(), source, answerKey(), sheetLayout()));
+    }
+
+    // A preview frame is already decoded and upright: the pipeline starts at ORIENT.
+    private void scanned(Bitmap frame) {
+        sheetBitmap = frame;
+        orientation = SheetOrientation.NORMAL;
+        showPhoto();
+        start(GradingPipeline.Request.process(role(), frame, orientation, answerKey(), sheetLayout()));
+    }
+
+    private void start(GradingPipeline.Request request) {
+        discard();
+        job = GradingPipeline.getInstance(this).submit(request, this);
+    }
+
+    // Cancels the job in flight and drops a finished result nobody asked for yet.
+    private void discard() {
+        if (job != null) {
+            job.cancel();
+            job = null;
+        }
+        if (pendingResult != null) {
+            pendingResult.getSheetGray().release();
+            pendingResult = null;
+        }
+        awaitingNext = false;
+        btnNext.setEnabled(true);
+    }
+
+    @Override
+    public void onStage(GradingPipeline.Stage stage) {
+        statusView.setText(describe(stage));
+    }
+
+    @Override
+    public void onImage(Bitmap image, SheetOrientation orientation) {
+        sheetBitmap = image;
+        this.orientation = orientation;
+        showPhoto();
+    }
+
+    // The photo is shown as decoded and turned upright by the view. A mirrored view shows the flip;
+    // as the mirror comes after the view's rotation, the rotation goes the other way.
+    private void showPhoto() {
+        imageView.setImageBitmap(sheetBitmap);
+        boolean flipped = orientation.isFlipped();
+        imageView.setScaleX(flipped ? -1 : 1);
+        imageView.setRotationTo(flipped ? -orientation.getDegrees() : orientation.getDegrees());
+    }
+
+    @Override
+    public void onComplete(SheetResult result) {
+        job = null;
+        statusView.setText(null);
+        btnNext.setEnabled(true);
+        if (awaitingNext) {
+            awaitingNext = false;
+            onSheetProcessed(result);
+        } else {
+            pendingResult = result;
+        }
+    }
+
+    @Override
+    public void onFailed(GradingPipeline.Stage stage, Exception error) {
+        job = null;
+        statusView.setText(null);
+        btnNext.setEnabled(true);
+        boolean waited = awaitingNext;
+        awaitingNext = false;
+        if (error instanceof RejectedExecutionException) {
+            Toast.makeText(this, "Still processing the previous sheet, please wait", Toast.LENGTH_SHORT).show();
+        } else if (error instanceof GradingPipeline.PoorQualityException) {
+            // Reported right away, whether Next is waiting or not: the photo has to be retaken.
+            Toast.makeText(this, describe(((GradingPipeline.PoorQualityException) error).getProblem()),
+                    Toast.LENGTH_LONG).show();
+        } else if (stage == GradingPipeline.Stage.DECODE || stage == GradingPipeline.Stage.ORIENT) {
+            Toast.makeText(this, "Could not load the image", Toast.LENGTH_SHORT).show();
+        } else if (waited) {
+            // Reported only when Next is waiting; a failed speculative run is retried by Next.
+            Toast.makeText(this, "Image processing failed. Please try again.", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private static String describe(GradingPipeline.Stage stage) {
+        switch (stage) {
+            case DECODE:
+                return "Loading image…";
+            case ORIENT:
+                return "Rotating image…";
+            case CHECK_QUALITY:
+                return "Checking the photo…";
+            case DETECT_SHEET:
+                return "Finding the sheet…";
+            case WARP:
+                return "Straightening the sheet…";
+            case READ_BUBBLES:
+                return "Reading bubbles…";
+            case RENDER:
+                return "Drawing the result…";
+            default:
+                return "Scoring…";
+        }
+    }
+
+    private static String describe(FrameQuality.Problem problem) {
+        switch (problem) {
+            case TOO_DARK:
+                return "The photo is too dark, please retake it in better light";
+            case TOO_BRIGHT:
+                return "The photo is too bright, please retake it without glare";
+            default:
+                return "The photo is blurry, please hold the phone still and retake it";
+        }
+    }
+}
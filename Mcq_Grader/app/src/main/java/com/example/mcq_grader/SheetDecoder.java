@@ -0,0 +1,77 @@
+package com.example.mcq_grader;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import androidx.exifinterface.media.ExifInterface;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Decodes a sheet photo at the size grading needs. The file is read once; EXIF orientation and the
+// pixels both come from those bytes. The pixels are subsampled while decoding, and orientation is
+// returned rather than applied, so no full-size Bitmap is ever allocated or copied.
+public final class SheetDecoder {
+    // Shortest long side worth decoding: the warp is 700x800 and the sheet rarely fills the frame.
+    public static final int TARGET_LONG_SIDE = 1600;
+
+    public static final class Decoded {
+        public final Bitmap bitmap;
+        public final SheetOrientation orientation;
+
+        Decoded(Bitmap bitmap, SheetOrientation orientation) {
+            this.bitmap = bitmap;
+            this.orientation = orientation;
+        }
+    }
+
+    private SheetDecoder() {}
+
+    public static Decoded decode(ContentResolver resolver, Uri source) throws IOException {
+        byte[] bytes;
+        try (InputStream in = resolver.openInputStream(source)) {
+            if (in == null) {
+                throw new IOException("Could not open " + source);
+            }
+            bytes = readAll(in);
+        }
+
+        ExifInterface exif = new ExifInterface(new ByteArrayInputStream(bytes));
+        SheetOrientation orientation = SheetOrientation.fromExif(
+                exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL));
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        options.inSampleSize = sampleSize(Math.max(options.outWidth, options.outHeight), TARGET_LONG_SIDE);
+        options.inJustDecodeBounds = false;
+        // Ink and paper survive 16 bit color; it halves the memory of the decode.
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (bitmap == null) {
+            throw new IOException("Could not decode " + source);
+        }
+        return new Decoded(bitmap, orientation);
+    }
+
+    // Largest power of two that keeps the long side at or above the target.
+    static int sampleSize(int longSide, int target) {
+        int sample = 1;
+        while (longSide / (sample * 2) >= target) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 1 << 16));
+        byte[] buffer = new byte[1 << 16];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
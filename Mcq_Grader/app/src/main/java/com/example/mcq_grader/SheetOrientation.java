@@ -0,0 +1,95 @@
+package com.example.mcq_grader;
+
+import androidx.exifinterface.media.ExifInterface;
+import com.example.mcq_grader.core.Geometry;
+import com.example.mcq_grader.opencv.MatScope;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+
+// How to turn the decoded pixels upright: an optional horizontal flip followed by a clockwise rotation,
+// the same convention as ExifInterface.isFlipped() and getRotationDegrees(). EXIF orientation and the
+// user's Rotate/Flip taps are tracked here instead of being baked into rotated Bitmap copies.
+public final class SheetOrientation {
+    public static final SheetOrientation NORMAL = new SheetOrientation(0, false);
+
+    private final int degrees;
+    private final boolean flipped;
+
+    private SheetOrientation(int degrees, boolean flipped) {
+        this.degrees = ((degrees % 360) + 360) % 360;
+        this.flipped = flipped;
+    }
+
+    public static SheetOrientation fromExif(int orientation) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                return new SheetOrientation(0, true);
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return new SheetOrientation(180, false);
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                return new SheetOrientation(180, true);
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                return new SheetOrientation(270, true);
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                return new SheetOrientation(90, false);
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                return new SheetOrientation(90, true);
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                return new SheetOrientation(270, false);
+            default:
+                return NORMAL;
+        }
+    }
+
+    public boolean isNormal() {
+        return degrees == 0 && !flipped;
+    }
+
+    public int getDegrees() {
+        return degrees;
+    }
+
+    public boolean isFlipped() {
+        return flipped;
+    }
+
+    // The upright image turned a further quarter turn clockwise.
+    public SheetOrientation rotate() {
+        return new SheetOrientation(degrees + 90, flipped);
+    }
+
+    // The upright image mirrored left to right. Flipping after a rotation is the same as flipping first
+    // and rotating the other way.
+    public SheetOrientation flip() {
+        return new SheetOrientation(-degrees, !flipped);
+    }
+
+    // Maps pixels of a width x height decoded image to the upright image, for composing into the sheet warp.
+    public double[] toMatrix(int width, int height) {
+        return Geometry.orientationMatrix(degrees, flipped, width, height);
+    }
+
+    // Writes the upright version of src into dst; src is left untouched.
+    public void apply(Mat src, Mat dst) {
+        try (MatScope scope = MatScope.open("orient")) {
+            Mat flippedSrc = src;
+            if (flipped) {
+                flippedSrc = scope.mat();
+                Core.flip(src, flippedSrc, 1);
+            }
+            switch (degrees) {
+                case 90:
+                    Core.rotate(flippedSrc, dst, Core.ROTATE_90_CLOCKWISE);
+                    break;
+                case 180:
+                    Core.rotate(flippedSrc, dst, Core.ROTATE_180);
+                    break;
+                case 270:
+                    Core.rotate(flippedSrc, dst, Core.ROTATE_90_COUNTERCLOCKWISE);
+                    break;
+                default:
+                    flippedSrc.copyTo(dst);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.mcq_grader;
+
+import android.graphics.Bitmap;
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.SheetMarks;
+import org.opencv.core.Mat;
+
+// What a GradingPipeline job produced. Fields are filled stage by stage; the ones of stages that did not
+// run for the request stay null.
+public class SheetResult {
+    Bitmap image;          // DECODE: the decoded photo, as stored
+    SheetOrientation orientation;  // DECODE: how to turn the photo upright
+    Bitmap preview;        // RENDER: the warped sheet with the marks drawn on
+    Mat sheetGray;         // WARP: clean grayscale warp, owned by whoever takes it
+    SheetMarks marks;      // READ_BUBBLES: marks at the key's bubbles, or at the layout's for a teacher sheet
+    AnswerKey answerKey;   // SCORE: key compiled from a teacher sheet
+    GradeResult grade;     // SCORE: student sheet graded against the key
+
+    public Bitmap getImage() {
+        return image;
+    }
+
+    public SheetOrientation getOrientation() {
+        return orientation;
+    }
+
+    public Bitmap getPreview() {
+        return preview;
+    }
+
+    public Mat getSheetGray() {
+        return sheetGray;
+    }
+
+    public SheetMarks getMarks() {
+        return marks;
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public GradeResult getGrade() {
+        return grade;
+    }
+}
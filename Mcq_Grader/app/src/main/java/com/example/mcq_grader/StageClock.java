@@ -0,0 +1,44 @@
+package com.example.mcq_grader;
+
+import android.os.Debug;
+import com.example.mcq_grader.core.PipelineMetrics;
+
+// Times consecutive stages on one thread into PipelineMetrics, with how much the Java heap and the native
+// heap (where OpenCV keeps the Mats) grew during each. These are process-wide totals sampled before and
+// after the stage, not the stage's own allocations: a stage that frees what it made counts as zero, a
+// garbage collection during it can hide what it made, and other threads' allocations count too. They
+// show which stages leave memory behind, not how much each allocates.
+final class StageClock {
+    private final PipelineMetrics metrics;
+    private String stage;
+    private long start;
+    private long heap;
+    private long nativeHeap;
+
+    StageClock(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Ends the running stage, if any, and starts the next one.
+    void start(String next) {
+        stop();
+        stage = next;
+        heap = usedHeap();
+        nativeHeap = Debug.getNativeHeapAllocatedSize();
+        start = System.nanoTime();
+    }
+
+    // Records the running stage. A stage that is never stopped, e.g. one that failed, is not recorded.
+    void stop() {
+        if (stage == null) return;
+        long nanos = System.nanoTime() - start;
+        metrics.record(stage, nanos, Math.max(0, usedHeap() - heap),
+                Math.max(0, Debug.getNativeHeapAllocatedSize() - nativeHeap));
+        stage = null;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -17,7 +17,7 @@ public class StudentConfirmActivity extends Activity {
         setContentView(R.layout.activity_student_confirm);
 
         imageView = findViewById(R.id.student_confirm_image_view);
-        Bitmap processedBitmap = ImageCache.getInstance().getStudentImage();
+        Bitmap processedBitmap = ImageCache.getInstance(this).getStudentImage();
         if (processedBitmap == null) {
             Toast.makeText(this, "No processed image found", Toast.LENGTH_SHORT).show();
             finish();
@@ -34,7 +34,12 @@ public class StudentConfirmActivity extends Activity {
         });
 
         btnConfirm.setOnClickListener(v -> {
-            startActivity(new Intent(StudentConfirmActivity.this, TeacherImageActivity.class));
+            if (GradingSession.getInstance().hasAnswerKey()) {
+                // The session already holds the answer key, skip the teacher sheet.
+                startActivity(new Intent(StudentConfirmActivity.this, ResultActivity.class));
+            } else {
+                startActivity(new Intent(StudentConfirmActivity.this, TeacherImageActivity.class));
+            }
             finish();
         });
     }
@@ -17,7 +17,7 @@ public class TeacherConfirmActivity extends Activity {
         setContentView(R.layout.activity_teacher_confirm);
 
         imageView = findViewById(R.id.teacher_confirm_image_view);
-        Bitmap processedBitmap = ImageCache.getInstance().getTeacherImage();
+        Bitmap processedBitmap = ImageCache.getInstance(this).getTeacherImage();
         if (processedBitmap == null) {
             Toast.makeText(this, "No processed teacher image found!", Toast.LENGTH_SHORT).show();
             finish();
@@ -34,7 +34,12 @@ public class TeacherConfirmActivity extends Activity {
         });
 
         btnConfirm.setOnClickListener(v -> {
-            startActivity(new Intent(TeacherConfirmActivity.this, ResultActivity.class));
+            if (GradingSession.getInstance().isActive()) {
+                // Key is compiled; go straight to the first student.
+                startActivity(new Intent(TeacherConfirmActivity.this, StudentImageActivity.class));
+            } else {
+                startActivity(new Intent(TeacherConfirmActivity.this, ResultActivity.class));
+            }
             finish();
         });
     }
@@ -0,0 +1,113 @@
+package com.example.mcq_grader;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+public class LatestFrameSchedulerTest {
+    private static final long MS = 1_000_000;
+
+    // Frames are one-element arrays; copying reuses the given buffer.
+    private static final LatestFrameScheduler.Frames<int[]> FRAMES = new LatestFrameScheduler.Frames<int[]>() {
+        @Override
+        public int[] copy(int[] src, int[] reuse) {
+            int[] dst = reuse != null ? reuse : new int[1];
+            dst[0] = src[0];
+            return dst;
+        }
+
+        @Override
+        public void release(int[] frame) {
+        }
+    };
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<Integer> detected = new ArrayList<>();
+    private long now = 1;
+
+    private LatestFrameScheduler<int[]> scheduler(long detectMillis) {
+        return new LatestFrameScheduler<>(FRAMES, frame -> {
+            detected.add(frame[0]);
+            now += detectMillis * MS;
+        }, tasks::add, () -> now);
+    }
+
+    @Test
+    public void offer_whileBusyKeepsOnlyTheNewestFrame() {
+        LatestFrameScheduler<int[]> scheduler = scheduler(0);
+        scheduler.offer(new int[]{1});
+        scheduler.offer(new int[]{2});
+        scheduler.offer(new int[]{3});
+
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+
+        assertEquals(List.of(3), detected);
+        assertEquals(2, scheduler.getDropped());
+    }
+
+    @Test
+    public void offer_skipsFramesUntilTheDetectionIntervalHasPassed() {
+        LatestFrameScheduler<int[]> scheduler = scheduler(40);
+        scheduler.offer(new int[]{1});
+        tasks.poll().run();
+        assertEquals(40 * MS, scheduler.getLatencyNanos());
+
+        // 40 ms per detection at half a core: nothing new until 80 ms after the last one started.
+        now += 20 * MS;
+        assertFalse(scheduler.offer(new int[]{2}));
+        now += 30 * MS;
+        assertTrue(scheduler.offer(new int[]{3}));
+        tasks.poll().run();
+
+        assertEquals(List.of(1, 3), detected);
+    }
+
+    @Test
+    public void close_releasesEveryBufferItAllocated() {
+        int[] live = new int[1];
+        LatestFrameScheduler.Frames<int[]> counting = new LatestFrameScheduler.Frames<int[]>() {
+            @Override
+            public int[] copy(int[] src, int[] reuse) {
+                if (reuse == null) live[0]++;
+                return FRAMES.copy(src, reuse);
+            }
+
+            @Override
+            public void release(int[] frame) {
+                live[0]--;
+            }
+        };
+        List<LatestFrameScheduler<int[]>> self = new ArrayList<>();
+        LatestFrameScheduler<int[]> scheduler = new LatestFrameScheduler<>(counting, frame -> {
+            detected.add(frame[0]);
+            // The next frame arrives while the first is detected, before there is a spare buffer.
+            if (frame[0] == 1) self.get(0).offer(new int[]{2});
+            now += 40 * MS;
+        }, tasks::add, () -> now);
+        self.add(scheduler);
+
+        scheduler.offer(new int[]{1});
+        tasks.poll().run();
+        scheduler.close();
+
+        assertEquals(List.of(1, 2), detected);
+        assertEquals(0, live[0]);
+    }
+
+    @Test
+    public void close_stopsTakingFrames() {
+        LatestFrameScheduler<int[]> scheduler = scheduler(0);
+        scheduler.offer(new int[]{1});
+        scheduler.close();
+        tasks.poll().run();
+
+        assertFalse(scheduler.offer(new int[]{2}));
+        assertTrue(detected.isEmpty());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.mcq_grader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SheetDecoderTest {
+
+    @Test
+    public void sampleSize_keepsTheLongSideAtOrAboveTheTarget() {
+        assertEquals(2, SheetDecoder.sampleSize(4000, 1600));
+        assertEquals(2, SheetDecoder.sampleSize(3264, 1600));
+        assertEquals(1, SheetDecoder.sampleSize(1632, 1600));
+        assertEquals(4, SheetDecoder.sampleSize(8000, 1600));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.mcq_grader;
+
+import androidx.exifinterface.media.ExifInterface;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SheetOrientationTest {
+
+    @Test
+    public void fromExif_flipsBeforeRotating() {
+        SheetOrientation transpose = SheetOrientation.fromExif(ExifInterface.ORIENTATION_TRANSPOSE);
+        SheetOrientation rotate90 = SheetOrientation.fromExif(ExifInterface.ORIENTATION_ROTATE_90);
+
+        assertEquals(270, transpose.getDegrees());
+        assertTrue(transpose.isFlipped());
+        assertEquals(90, rotate90.getDegrees());
+        assertFalse(rotate90.isFlipped());
+        assertTrue(SheetOrientation.fromExif(ExifInterface.ORIENTATION_UNDEFINED).isNormal());
+    }
+
+    @Test
+    public void flip_afterRotateTurnsTheRotationAround() {
+        SheetOrientation o = SheetOrientation.NORMAL.rotate().flip();
+
+        assertEquals(270, o.getDegrees());
+        assertTrue(o.isFlipped());
+        assertFalse(o.flip().rotate().isNormal());
+        assertTrue(o.flip().rotate().rotate().rotate().isNormal());
+    }
+}
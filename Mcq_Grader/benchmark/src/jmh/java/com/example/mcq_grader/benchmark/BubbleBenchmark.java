@@ -0,0 +1,79 @@
+package com.example.mcq_grader.benchmark;
+
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.Circle;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.Grader;
+import com.example.mcq_grader.opencv.ImageProcessor;
+import com.example.mcq_grader.opencv.OpenCvCellReader;
+import com.example.mcq_grader.opencv.OpenCvGrader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.opencv.core.Mat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Bubble detection and grading on the canonical 700x800 warp, which is the same size whatever
+// the camera resolution, so these are not parameterized by resolution.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BubbleBenchmark {
+
+    private Mat warped;
+    private AnswerKey key;
+    private List<Circle> studentMarks;
+    private Grader<Mat> grader;
+    private CompiledLayout layout;
+    private final OpenCvCellReader cellReader = new OpenCvCellReader();
+
+    @Setup
+    public void setup() {
+        nu.pattern.OpenCV.loadLocally();
+        Mat photo = SheetCorpus.load("2MP");
+        warped = ImageProcessor.processImage(photo);
+        photo.release();
+
+        grader = OpenCvGrader.create();
+        studentMarks = ImageProcessor.detectFilledBubbles(warped);
+        key = AnswerKey.compile(studentMarks);
+        layout = SheetCorpus.layout().compile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        warped.release();
+    }
+
+    @Benchmark
+    public List<Circle> detectFilledCircles() {
+        return ImageProcessor.detectFilledBubbles(warped);
+    }
+
+    // Fixed scan over the layout cells, the alternative to detectFilledCircles plus match.
+    @Benchmark
+    public float[] readCells() {
+        return cellReader.readCells(warped, layout);
+    }
+
+    @Benchmark
+    public GradeResult match() {
+        return grader.grade(studentMarks, key);
+    }
+
+    @Benchmark
+    public int compareCircles() {
+        Mat graded = ImageProcessor.compareCircles(grader.grade(studentMarks, key), warped);
+        int cols = graded.cols();
+        graded.release();
+        return cols;
+    }
+}
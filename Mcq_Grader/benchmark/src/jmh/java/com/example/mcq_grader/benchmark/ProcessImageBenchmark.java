@@ -0,0 +1,180 @@
+package com.example.mcq_grader.benchmark;
+
+import com.example.mcq_grader.opencv.ImageProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One benchmark per stage of the sheet outline search run at full resolution, with the parameters of
+// ImageProcessor, plus the pyramid corner search and the whole processImage call.
+// Every stage reads the output of the previous one, prepared once in setup, and writes into a reused Mat
+// so the numbers are the cost of the stage itself.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProcessImageBenchmark {
+
+    @Param({"2MP", "8MP", "12MP"})
+    public String resolution;
+
+    private Mat photo;
+    private Mat gray;
+    private Mat blurred;
+    private Mat thresh;
+    private Mat edges;
+    private MatOfPoint2f largestContour;
+    private Mat perspective;
+    private Mat out;
+
+    @Setup
+    public void setup() {
+        nu.pattern.OpenCV.loadLocally();
+        photo = SheetCorpus.load(resolution);
+
+        gray = new Mat();
+        Imgproc.cvtColor(photo, gray, Imgproc.COLOR_BGR2GRAY);
+        blurred = new Mat();
+        Imgproc.GaussianBlur(gray, blurred, new Size(5, 5), 0);
+        thresh = new Mat();
+        Imgproc.adaptiveThreshold(blurred, thresh, 255, Imgproc.ADAPTIVE_THRESH_GAUSSIAN_C,
+                Imgproc.THRESH_BINARY_INV, 11, 2);
+        edges = new Mat();
+        Imgproc.Canny(thresh, edges, 50, 150);
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Mat hierarchy = new Mat();
+        Imgproc.findContours(edges, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        hierarchy.release();
+        MatOfPoint largest = contours.get(0);
+        for (MatOfPoint cnt : contours) {
+            if (Imgproc.contourArea(cnt) > Imgproc.contourArea(largest)) {
+                largest = cnt;
+            }
+        }
+        largestContour = new MatOfPoint2f(largest.toArray());
+        releaseAll(contours);
+
+        double perimeter = Imgproc.arcLength(largestContour, true);
+        MatOfPoint2f approx = new MatOfPoint2f();
+        Imgproc.approxPolyDP(largestContour, approx, 0.02 * perimeter, true);
+        if (approx.total() != 4) {
+            throw new IllegalStateException("Corpus sheet for " + resolution + " has no quadrilateral");
+        }
+        MatOfPoint2f ordered = ImageProcessor.reorderPoints(approx);
+        MatOfPoint2f dst = new MatOfPoint2f(
+                new Point(0, 0), new Point(699, 0), new Point(699, 799), new Point(0, 799));
+        perspective = Imgproc.getPerspectiveTransform(ordered, dst);
+        approx.release();
+        ordered.release();
+        dst.release();
+
+        out = new Mat();
+    }
+
+    @TearDown
+    public void tearDown() {
+        photo.release();
+        gray.release();
+        blurred.release();
+        thresh.release();
+        edges.release();
+        largestContour.release();
+        perspective.release();
+        out.release();
+    }
+
+    private static void releaseAll(List<MatOfPoint> contours) {
+        for (MatOfPoint cnt : contours) {
+            cnt.release();
+        }
+    }
+
+    @Benchmark
+    public Mat colorConversion() {
+        Imgproc.cvtColor(photo, out, Imgproc.COLOR_BGR2GRAY);
+        return out;
+    }
+
+    @Benchmark
+    public Mat gaussianBlur() {
+        Imgproc.GaussianBlur(gray, out, new Size(5, 5), 0);
+        return out;
+    }
+
+    @Benchmark
+    public Mat adaptiveThreshold() {
+        Imgproc.adaptiveThreshold(blurred, out, 255, Imgproc.ADAPTIVE_THRESH_GAUSSIAN_C,
+                Imgproc.THRESH_BINARY_INV, 11, 2);
+        return out;
+    }
+
+    @Benchmark
+    public Mat canny() {
+        Imgproc.Canny(thresh, out, 50, 150);
+        return out;
+    }
+
+    @Benchmark
+    public int findContours() {
+        List<MatOfPoint> contours = new ArrayList<>();
+        Imgproc.findContours(edges, contours, out, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        int count = contours.size();
+        releaseAll(contours);
+        return count;
+    }
+
+    @Benchmark
+    public long approxPolyDP() {
+        MatOfPoint2f approx = new MatOfPoint2f();
+        double perimeter = Imgproc.arcLength(largestContour, true);
+        Imgproc.approxPolyDP(largestContour, approx, 0.02 * perimeter, true);
+        long corners = approx.total();
+        approx.release();
+        return corners;
+    }
+
+    @Benchmark
+    public Mat warpPerspective() {
+        Imgproc.warpPerspective(photo, out, perspective, new Size(700, 800));
+        return out;
+    }
+
+    @Benchmark
+    public long findSheetCorners() {
+        MatOfPoint2f corners = ImageProcessor.findSheetCorners(photo);
+        long total = corners.total();
+        corners.release();
+        return total;
+    }
+
+    @Benchmark
+    public int processImage() {
+        Mat warped = ImageProcessor.processImage(photo);
+        int cols = warped.cols();
+        warped.release();
+        return cols;
+    }
+
+    // Batch grading: the warp goes into a reused Mat and intermediates come from the thread's MatArena.
+    @Benchmark
+    public Mat processImageReused() {
+        ImageProcessor.processImage(photo, out);
+        return out;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.mcq_grader.benchmark;
+
+import com.example.mcq_grader.core.SheetLayout;
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.File;
+
+// Fixed set of sheet photos the benchmarks run on, one per camera resolution.
+// With -Dmcq.corpus=<dir> the photos are read from <dir>/sheet_<resolution>.jpg (e.g. sheet_12MP.jpg),
+// otherwise the same synthetic sheet is rendered at every resolution so runs stay comparable.
+public final class SheetCorpus {
+    public static final String CORPUS_DIR_PROPERTY = "mcq.corpus";
+
+    public static final int QUESTIONS = 20;
+    public static final int OPTIONS = 4;
+    public static final long SEED = 20250304L;
+
+    private SheetCorpus() {}
+
+    public static Size sizeOf(String resolution) {
+        switch (resolution) {
+            case "2MP":
+                return new Size(1632, 1224);
+            case "8MP":
+                return new Size(3264, 2448);
+            case "12MP":
+                return new Size(4000, 3000);
+            default:
+                throw new IllegalArgumentException("Unknown resolution: " + resolution);
+        }
+    }
+
+    // Returns a BGR photo of an answer sheet at the given resolution.
+    public static Mat load(String resolution) {
+        String dir = System.getProperty(CORPUS_DIR_PROPERTY);
+        if (dir != null) {
+            File file = new File(dir, "sheet_" + resolution + ".jpg");
+            Mat photo = Imgcodecs.imread(file.getAbsolutePath());
+            if (photo.empty()) {
+                throw new IllegalStateException("Could not read corpus image " + file);
+            }
+            return photo;
+        }
+        return render(sizeOf(resolution));
+    }
+
+    // Bubble layout of the rendered sheets.
+    public static SheetLayout layout() {
+        return SheetLayout.standard(QUESTIONS, OPTIONS);
+    }
+
+    // Clean sheet (mild skew, no blur or noise) from the synthetic generator with a fixed seed.
+    private static Mat render(Size size) {
+        SheetSpec spec = new SheetSpec()
+                .questions(QUESTIONS)
+                .options(OPTIONS)
+                .size((int) size.width, (int) size.height)
+                .skew(0.03);
+        return new SheetGenerator(spec).generate(SEED).getImage();
+    }
+}
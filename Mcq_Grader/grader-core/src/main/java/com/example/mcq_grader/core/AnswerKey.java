@@ -0,0 +1,277 @@
+package com.example.mcq_grader.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Answer key compiled once from the teacher sheet: for every question a bitset of the selected
+// options, plus the canonical bubble centers (in warped sheet coordinates) of every question/option cell.
+// Grading only needs this structure and the student image, and it round-trips through a small binary file.
+// A key compiled against a declared SheetLayout keeps it, in the file too, so the sheet it belongs to is
+// known when it is loaded again.
+public class AnswerKey {
+    public static final String FILE_NAME = "answer_key.bin";
+    // Marks whose centers are closer than this along an axis belong to the same row / column.
+    public static final float CLUSTER_TOLERANCE = 20f;
+    public static final float DEFAULT_RADIUS = 20f;
+    public static final int MAX_OPTIONS = 64;
+
+    private static final int MAGIC = 0x4D43514B; // "MCQK"
+    // Version 1 files have no sheet layout.
+    private static final int VERSION = 2;
+
+    private final int questionCount;
+    private final int optionCount;
+    private final float radius;
+    private final float[] centers;  // (question * optionCount + option) * 2 -> x, y
+    private final long[] selected;  // per question, bit n set when option n is marked
+    private volatile CompiledLayout layout;
+
+    public AnswerKey(int questionCount, int optionCount, float radius, float[] centers, long[] selected) {
+        this(questionCount, optionCount, radius, centers, selected, null);
+    }
+
+    // A key on the cells of a compiled layout, which then reads the student sheets.
+    AnswerKey(int questionCount, int optionCount, float radius, float[] centers, long[] selected,
+              CompiledLayout layout) {
+        if (optionCount > MAX_OPTIONS) {
+            throw new IllegalArgumentException("Too many options per question: " + optionCount);
+        }
+        if (centers.length != questionCount * optionCount * 2 || selected.length != questionCount) {
+            throw new IllegalArgumentException("Answer key geometry does not match "
+                    + questionCount + " x " + optionCount);
+        }
+        this.questionCount = questionCount;
+        this.optionCount = optionCount;
+        this.radius = radius;
+        this.centers = centers;
+        this.selected = selected;
+        this.layout = layout;
+    }
+
+    // Compile the key from the filled circles detected on the teacher sheet. Rows of marks become
+    // questions (top to bottom) and columns become options (left to right); the bubble radius is the
+    // mean radius of the marks.
+    public static AnswerKey compile(List<Circle> marks) {
+        float[] rows = clusterAxis(marks, false);
+        float[] cols = clusterAxis(marks, true);
+        if (cols.length > MAX_OPTIONS) {
+            throw new IllegalArgumentException("Too many option columns on the teacher sheet: " + cols.length);
+        }
+
+        float[] centers = new float[rows.length * cols.length * 2];
+        for (int q = 0; q < rows.length; q++) {
+            for (int o = 0; o < cols.length; o++) {
+                int i = (q * cols.length + o) * 2;
+                centers[i] = cols[o];
+                centers[i + 1] = rows[q];
+            }
+        }
+        long[] selected = new long[rows.length];
+        for (Circle c : marks) {
+            int q = nearest(rows, c.y);
+            int o = nearest(cols, c.x);
+            selected[q] |= 1L << o;
+        }
+        float radius = 0;
+        for (Circle c : marks) {
+            radius += c.radius;
+        }
+        radius = marks.isEmpty() || radius <= 0 ? DEFAULT_RADIUS : radius / marks.size();
+        return new AnswerKey(rows.length, cols.length, radius, centers, selected);
+    }
+
+    // Sort the coordinates along one axis and merge neighbours within CLUSTER_TOLERANCE into their mean.
+    private static float[] clusterAxis(List<Circle> marks, boolean xAxis) {
+        float[] values = new float[marks.size()];
+        for (int i = 0; i < values.length; i++) {
+            Circle c = marks.get(i);
+            values[i] = xAxis ? c.x : c.y;
+        }
+        Arrays.sort(values);
+
+        float[] clusters = new float[values.length];
+        int count = 0;
+        int start = 0;
+        float sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i > start && values[i] - values[i - 1] > CLUSTER_TOLERANCE) {
+                clusters[count++] = sum / (i - start);
+                start = i;
+                sum = 0;
+            }
+            sum += values[i];
+        }
+        if (values.length > 0) {
+            clusters[count++] = sum / (values.length - start);
+        }
+        return Arrays.copyOf(clusters, count);
+    }
+
+    private static int nearest(float[] sorted, float value) {
+        int best = 0;
+        for (int i = 1; i < sorted.length; i++) {
+            if (Math.abs(sorted[i] - value) < Math.abs(sorted[best] - value)) best = i;
+        }
+        return best;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public int getOptionCount() {
+        return optionCount;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    // Cell lookup table of the key's bubbles: the layout the key was compiled against, or one compiled
+    // from its bubbles on first use.
+    public CompiledLayout getLayout() {
+        CompiledLayout compiled = layout;
+        if (compiled == null) {
+            compiled = CompiledLayout.fromKey(this);
+            layout = compiled;
+        }
+        return compiled;
+    }
+
+    // The declared layout of the sheet the key was compiled for, or null when the layout was derived from
+    // the teacher's marks.
+    public SheetLayout getSheetLayout() {
+        CompiledLayout compiled = layout;
+        return compiled != null ? compiled.getSheetLayout() : null;
+    }
+
+    public long getSelectedOptions(int question) {
+        return selected[question];
+    }
+
+    public boolean isSelected(int question, int option) {
+        return (selected[question] & (1L << option)) != 0;
+    }
+
+    public float getCenterX(int question, int option) {
+        return centers[(question * optionCount + option) * 2];
+    }
+
+    public float getCenterY(int question, int option) {
+        return centers[(question * optionCount + option) * 2 + 1];
+    }
+
+    // Number of marked bubbles on the key.
+    public int getMarkCount() {
+        int count = 0;
+        for (long bits : selected) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    // Centers of the marked bubbles, in question then option order.
+    public List<Circle> getMarks() {
+        List<Circle> marks = new ArrayList<>(getMarkCount());
+        for (int q = 0; q < questionCount; q++) {
+            for (int o = 0; o < optionCount; o++) {
+                if (isSelected(q, o)) {
+                    marks.add(new Circle(getCenterX(q, o), getCenterY(q, o), radius));
+                }
+            }
+        }
+        return marks;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeShort(questionCount);
+        data.writeByte(optionCount);
+        data.writeFloat(radius);
+        for (float c : centers) {
+            data.writeFloat(c);
+        }
+        for (long bits : selected) {
+            data.writeLong(bits);
+        }
+        SheetLayout sheetLayout = getSheetLayout();
+        List<SheetLayout.Block> blocks = sheetLayout != null ? sheetLayout.getBlocks() : new ArrayList<>();
+        data.writeByte(blocks.size());
+        for (SheetLayout.Block block : blocks) {
+            data.writeFloat(block.x);
+            data.writeFloat(block.y);
+            data.writeShort(block.rows);
+            data.writeByte(block.options);
+            data.writeFloat(block.optionPitch);
+            data.writeFloat(block.rowPitch);
+            data.writeFloat(block.radius);
+        }
+        data.flush();
+    }
+
+    public static AnswerKey readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an answer key file");
+        }
+        int version = data.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported answer key version: " + version);
+        }
+        int questionCount = data.readUnsignedShort();
+        int optionCount = data.readUnsignedByte();
+        float radius = data.readFloat();
+        float[] centers = new float[questionCount * optionCount * 2];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = data.readFloat();
+        }
+        long[] selected = new long[questionCount];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = data.readLong();
+        }
+        int blockCount = version >= 2 ? data.readUnsignedByte() : 0;
+        if (blockCount == 0) {
+            return new AnswerKey(questionCount, optionCount, radius, centers, selected);
+        }
+        SheetLayout sheetLayout = new SheetLayout();
+        for (int i = 0; i < blockCount; i++) {
+            sheetLayout.addBlock(data.readFloat(), data.readFloat(), data.readUnsignedShort(),
+                    data.readUnsignedByte(), data.readFloat(), data.readFloat(), data.readFloat());
+        }
+        CompiledLayout layout;
+        try {
+            layout = sheetLayout.compile();
+        } catch (IllegalStateException e) {
+            throw new IOException("Invalid sheet layout in answer key", e);
+        }
+        if (layout.getQuestionCount() != questionCount || layout.getOptionCount() != optionCount) {
+            throw new IOException("Answer key does not match its sheet layout");
+        }
+        return new AnswerKey(questionCount, optionCount, radius, centers, selected, layout);
+    }
+
+    public void save(File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            writeTo(out);
+        }
+    }
+
+    public static AnswerKey load(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return readFrom(in);
+        }
+    }
+}
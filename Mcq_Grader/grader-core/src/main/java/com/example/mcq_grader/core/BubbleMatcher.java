@@ -0,0 +1,9 @@
+package com.example.mcq_grader.core;
+
+import java.util.List;
+
+// Matches the marks read from a student sheet against an answer key and scores them.
+public interface BubbleMatcher {
+
+    GradeResult match(AnswerKey key, List<Circle> studentMarks);
+}
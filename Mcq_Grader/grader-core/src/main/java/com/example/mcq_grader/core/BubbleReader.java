@@ -0,0 +1,9 @@
+package com.example.mcq_grader.core;
+
+import java.util.List;
+
+// Reads the filled bubbles of a sheet already warped by a SheetDetector.
+public interface BubbleReader<I> {
+
+    List<Circle> readMarks(I sheet);
+}
@@ -0,0 +1,8 @@
+package com.example.mcq_grader.core;
+
+// Reads a warped sheet cell by cell through a compiled layout: no search, one value per bubble.
+public interface CellReader<I> {
+
+    // Fill ratio of every cell, from 0 (blank paper) to 1 (fully inked), in layout cell order.
+    float[] readCells(I sheet, CompiledLayout layout);
+}
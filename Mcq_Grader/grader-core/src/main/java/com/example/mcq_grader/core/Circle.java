@@ -1,4 +1,4 @@
-package com.example.mcq_grader;
+package com.example.mcq_grader.core;
 
 public class Circle {
     public float x;
@@ -0,0 +1,100 @@
+package com.example.mcq_grader.core;
+
+// Flat lookup table of the bubble cells of a sheet, question-major: cell = question * optionCount + option.
+// Each cell has a region of interest of four ints (x, y, width, height) in canonical warp pixels,
+// the square inscribed in the bubble so the printed outline stays out of it. Reading a sheet is a
+// single pass over this array.
+public class CompiledLayout {
+    // Half side of the inscribed square relative to the bubble radius (just under 1/sqrt(2)).
+    private static final float INSCRIBED = 0.68f;
+
+    private final int questionCount;
+    private final int optionCount;
+    private final float radius;
+    private final float[] centers;
+    private final int[] rois;
+    private final SheetLayout sheetLayout;
+
+    CompiledLayout(int questionCount, int optionCount, float radius, float[] centers, float[] radii,
+                   SheetLayout sheetLayout) {
+        this.questionCount = questionCount;
+        this.optionCount = optionCount;
+        this.radius = radius;
+        this.centers = centers;
+        this.sheetLayout = sheetLayout;
+        this.rois = new int[radii.length * 4];
+        for (int cell = 0; cell < radii.length; cell++) {
+            int half = Math.max(1, Math.round(radii[cell] * INSCRIBED));
+            rois[cell * 4] = Math.round(centers[cell * 2]) - half;
+            rois[cell * 4 + 1] = Math.round(centers[cell * 2 + 1]) - half;
+            rois[cell * 4 + 2] = 2 * half;
+            rois[cell * 4 + 3] = 2 * half;
+        }
+    }
+
+    // Layout of the cells of an answer key, for keys compiled from detected marks rather than from a
+    // declared SheetLayout.
+    public static CompiledLayout fromKey(AnswerKey key) {
+        int q = key.getQuestionCount();
+        int o = key.getOptionCount();
+        float[] centers = new float[q * o * 2];
+        float[] radii = new float[q * o];
+        for (int cell = 0; cell < q * o; cell++) {
+            centers[cell * 2] = key.getCenterX(cell / o, cell % o);
+            centers[cell * 2 + 1] = key.getCenterY(cell / o, cell % o);
+            radii[cell] = key.getRadius();
+        }
+        return new CompiledLayout(q, o, key.getRadius(), centers, radii, null);
+    }
+
+    // The declared layout this was compiled from, or null for the layout of a key's bubbles.
+    public SheetLayout getSheetLayout() {
+        return sheetLayout;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public int getOptionCount() {
+        return optionCount;
+    }
+
+    public int getCellCount() {
+        return questionCount * optionCount;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    // Cell ROIs, four ints per cell. The array is shared, callers must not modify it.
+    public int[] getRois() {
+        return rois;
+    }
+
+    public float getCenterX(int cell) {
+        return centers[cell * 2];
+    }
+
+    public float getCenterY(int cell) {
+        return centers[cell * 2 + 1];
+    }
+
+    // Per question option bitsets of the cells whose fill ratio reaches the threshold.
+    public long[] markedOptions(float[] fill, float threshold) {
+        long[] marked = new long[questionCount];
+        for (int cell = 0; cell < fill.length; cell++) {
+            if (fill[cell] >= threshold) {
+                marked[cell / optionCount] |= 1L << (cell % optionCount);
+            }
+        }
+        return marked;
+    }
+
+    // Answer key with the given selected options on this layout's bubbles. The key reads student sheets
+    // through this layout.
+    public AnswerKey toAnswerKey(long[] selected) {
+        return new AnswerKey(questionCount, optionCount, radius, centers.clone(), selected, this);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mcq_grader.core;
+
+// Decides when a sheet held under the camera is still enough to capture. The ordered corners found on
+// consecutive preview frames are fed in; the sheet is stable once no corner has moved more than
+// tolerance (a fraction of the frame diagonal) for the given number of frames in a row. A frame
+// without a sheet, or with a sheet covering less than minCoverage of the frame, starts over.
+public final class CornerStability {
+    public static final double DEFAULT_TOLERANCE = 0.01;
+    public static final int DEFAULT_FRAMES = 8;
+    public static final double DEFAULT_MIN_COVERAGE = 0.2;
+
+    private final double tolerance;
+    private final int frames;
+    private final double minCoverage;
+    private double[] last;
+    private int stillFrames;
+
+    public CornerStability() {
+        this(DEFAULT_TOLERANCE, DEFAULT_FRAMES, DEFAULT_MIN_COVERAGE);
+    }
+
+    public CornerStability(double tolerance, int frames, double minCoverage) {
+        this.tolerance = tolerance;
+        this.frames = frames;
+        this.minCoverage = minCoverage;
+    }
+
+    // Corners of the next frame (8 doubles, see Geometry) or null when none were found. Returns true
+    // while the sheet is stable.
+    public boolean update(double[] corners, int width, int height) {
+        if (corners == null || Geometry.quadArea(corners) < minCoverage * width * height) {
+            reset();
+            return false;
+        }
+        if (last != null && maxMove(last, corners) <= tolerance * Math.hypot(width, height)) {
+            stillFrames++;
+        } else {
+            stillFrames = 0;
+        }
+        last = corners.clone();
+        return isStable();
+    }
+
+    public boolean isStable() {
+        return stillFrames >= frames;
+    }
+
+    // Frames in a row the corners have stayed put, for showing progress.
+    public int getStillFrames() {
+        return stillFrames;
+    }
+
+    public int getRequiredFrames() {
+        return frames;
+    }
+
+    public void reset() {
+        last = null;
+        stillFrames = 0;
+    }
+
+    private static double maxMove(double[] a, double[] b) {
+        double max = 0;
+        for (int i = 0; i < 8; i += 2) {
+            max = Math.max(max, Math.hypot(a[i] - b[i], a[i + 1] - b[i + 1]));
+        }
+        return max;
+    }
+}
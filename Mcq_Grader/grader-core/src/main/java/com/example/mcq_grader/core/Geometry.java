@@ -0,0 +1,94 @@
+package com.example.mcq_grader.core;
+
+// Plain geometry helpers shared by the image adapters. Quadrilaterals are passed as
+// 8 doubles: x0, y0, x1, y1, x2, y2, x3, y3; 3x3 matrices as 9 doubles, row-major.
+public final class Geometry {
+
+    private Geometry() {}
+
+    // Reorder 4 points to [top-left, top-right, bottom-right, bottom-left]
+    public static double[] reorderPoints(double[] quad) {
+        if (quad.length != 8) return quad;
+
+        double[] sums = new double[4];
+        double[] diffs = new double[4];
+        for (int i = 0; i < 4; i++) {
+            sums[i] = quad[i * 2] + quad[i * 2 + 1];
+            diffs[i] = quad[i * 2 + 1] - quad[i * 2];
+        }
+
+        int tl = 0, br = 0, tr = 0, bl = 0;
+        for (int i = 1; i < 4; i++) {
+            if (sums[i] < sums[tl]) tl = i;
+            if (sums[i] > sums[br]) br = i;
+            if (diffs[i] < diffs[tr]) tr = i;
+            if (diffs[i] > diffs[bl]) bl = i;
+        }
+
+        return new double[]{
+                quad[tl * 2], quad[tl * 2 + 1],
+                quad[tr * 2], quad[tr * 2 + 1],
+                quad[br * 2], quad[br * 2 + 1],
+                quad[bl * 2], quad[bl * 2 + 1]
+        };
+    }
+
+    // Area of a quad with its corners in order around the outline (shoelace formula).
+    public static double quadArea(double[] quad) {
+        double twice = 0;
+        for (int i = 0; i < 4; i++) {
+            int j = (i + 1) % 4;
+            twice += quad[i * 2] * quad[j * 2 + 1] - quad[j * 2] * quad[i * 2 + 1];
+        }
+        return Math.abs(twice) / 2;
+    }
+
+    // Maps pixels of a width x height image to the image turned upright: flipped left to right first
+    // if flipped, then rotated clockwise by degrees (a multiple of 90).
+    public static double[] orientationMatrix(int degrees, boolean flipped, int width, int height) {
+        double[] flip = flipped
+                ? new double[]{-1, 0, width - 1, 0, 1, 0, 0, 0, 1}
+                : new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1};
+        double[] rotate;
+        switch (((degrees % 360) + 360) % 360) {
+            case 90:
+                rotate = new double[]{0, -1, height - 1, 1, 0, 0, 0, 0, 1};
+                break;
+            case 180:
+                rotate = new double[]{-1, 0, width - 1, 0, -1, height - 1, 0, 0, 1};
+                break;
+            case 270:
+                rotate = new double[]{0, 1, 0, -1, 0, width - 1, 0, 0, 1};
+                break;
+            case 0:
+                rotate = new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1};
+                break;
+            default:
+                throw new IllegalArgumentException("Not a quarter turn: " + degrees);
+        }
+        return multiply(rotate, flip);
+    }
+
+    // a * b for 3x3 matrices.
+    public static double[] multiply(double[] a, double[] b) {
+        double[] m = new double[9];
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                m[r * 3 + c] = a[r * 3] * b[c] + a[r * 3 + 1] * b[3 + c] + a[r * 3 + 2] * b[6 + c];
+            }
+        }
+        return m;
+    }
+
+    // Applies a 3x3 homography to the points of a quad (or any x, y list) and returns the result.
+    public static double[] transform(double[] m, double[] points) {
+        double[] out = new double[points.length];
+        for (int i = 0; i < points.length; i += 2) {
+            double x = points[i], y = points[i + 1];
+            double w = m[6] * x + m[7] * y + m[8];
+            out[i] = (m[0] * x + m[1] * y + m[2]) / w;
+            out[i + 1] = (m[3] * x + m[4] * y + m[5]) / w;
+        }
+        return out;
+    }
+}
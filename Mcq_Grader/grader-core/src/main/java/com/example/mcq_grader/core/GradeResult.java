@@ -0,0 +1,101 @@
+package com.example.mcq_grader.core;
+
+import java.util.List;
+
+// Outcome of grading one student sheet, question by question. The score text and the graded overlay
+// are both produced from this, so they always agree.
+public class GradeResult {
+
+    public enum Status {
+        // The student marked exactly the key options.
+        CORRECT,
+        // The student marked other options than the key.
+        WRONG,
+        // The key has a single answer and the student marked more than one option.
+        MULTIPLE,
+        // Nothing marked by the student.
+        BLANK,
+        // The key has no answer for this question; it does not count towards the score.
+        UNGRADED
+    }
+
+    private final AnswerKey key;
+    private final long[] studentOptions;
+    private final Status[] statuses;
+    private final List<Circle> strayMarks;
+    private final int correctCount;
+    private final int total;
+
+    // Scores every question in one pass over the per-question option bitsets.
+    public GradeResult(AnswerKey key, long[] studentOptions, List<Circle> strayMarks) {
+        if (studentOptions.length != key.getQuestionCount()) {
+            throw new IllegalArgumentException("Expected " + key.getQuestionCount()
+                    + " questions, got " + studentOptions.length);
+        }
+        this.key = key;
+        this.studentOptions = studentOptions;
+        this.strayMarks = strayMarks;
+        this.statuses = new Status[studentOptions.length];
+
+        int correct = 0;
+        int graded = 0;
+        for (int q = 0; q < studentOptions.length; q++) {
+            long expected = key.getSelectedOptions(q);
+            long marked = studentOptions[q];
+            Status status;
+            if (expected == 0) {
+                status = Status.UNGRADED;
+            } else if (marked == expected) {
+                status = Status.CORRECT;
+            } else if (marked == 0) {
+                status = Status.BLANK;
+            } else if (Long.bitCount(expected) == 1 && Long.bitCount(marked) > 1) {
+                status = Status.MULTIPLE;
+            } else {
+                status = Status.WRONG;
+            }
+            statuses[q] = status;
+            if (status != Status.UNGRADED) graded++;
+            if (status == Status.CORRECT) correct++;
+        }
+        this.correctCount = correct;
+        this.total = graded;
+    }
+
+    public AnswerKey getKey() {
+        return key;
+    }
+
+    public int getQuestionCount() {
+        return statuses.length;
+    }
+
+    public Status getStatus(int question) {
+        return statuses[question];
+    }
+
+    public long getStudentOptions(int question) {
+        return studentOptions[question];
+    }
+
+    public boolean isMarked(int question, int option) {
+        return (studentOptions[question] & (1L << option)) != 0;
+    }
+
+    // Student marks that did not fall on any bubble of the key.
+    public List<Circle> getStrayMarks() {
+        return strayMarks;
+    }
+
+    public int getCorrectCount() {
+        return correctCount;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public String getSummary() {
+        return correctCount + " / " + total + " correct";
+    }
+}
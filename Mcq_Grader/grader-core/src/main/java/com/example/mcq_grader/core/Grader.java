@@ -0,0 +1,38 @@
+package com.example.mcq_grader.core;
+
+import java.util.List;
+
+// Ties a sheet detector, a bubble reader and a matcher together into the grading pipeline.
+// The same instance compiles the key from the teacher sheet and grades every student sheet.
+public class Grader<I> {
+    private final SheetDetector<I> detector;
+    private final BubbleReader<I> reader;
+    private final BubbleMatcher matcher;
+
+    public Grader(SheetDetector<I> detector, BubbleReader<I> reader, BubbleMatcher matcher) {
+        this.detector = detector;
+        this.reader = reader;
+        this.matcher = matcher;
+    }
+
+    public List<Circle> readSheet(I image) {
+        I sheet = detector.detectSheet(image);
+        try {
+            return reader.readMarks(sheet);
+        } finally {
+            detector.release(sheet);
+        }
+    }
+
+    public AnswerKey compileKey(I teacherImage) {
+        return AnswerKey.compile(readSheet(teacherImage));
+    }
+
+    public GradeResult grade(I studentImage, AnswerKey key) {
+        return matcher.match(key, readSheet(studentImage));
+    }
+
+    public GradeResult grade(List<Circle> studentMarks, AnswerKey key) {
+        return matcher.match(key, studentMarks);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.mcq_grader.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Matches student marks to the question/option cells of the key through a spatial hash: cell centers
+// are bucketed on a grid with the match threshold as pitch, so each mark only looks at the 3x3 buckets
+// around it. Building the index and matching are both linear, instead of every mark against every cell.
+public class GridBubbleMatcher implements BubbleMatcher {
+    private final float threshold;
+
+    public GridBubbleMatcher(float threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public GradeResult match(AnswerKey key, List<Circle> studentMarks) {
+        int options = key.getOptionCount();
+        int cells = key.getQuestionCount() * options;
+
+        float maxX = 0, maxY = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            maxX = Math.max(maxX, key.getCenterX(cell / options, cell % options));
+            maxY = Math.max(maxY, key.getCenterY(cell / options, cell % options));
+        }
+        int gridCols = (int) (maxX / threshold) + 1;
+        int gridRows = (int) (maxY / threshold) + 1;
+
+        // Bucket -> first cell, cell -> next cell in the same bucket.
+        int[] head = new int[gridCols * gridRows];
+        int[] next = new int[cells];
+        Arrays.fill(head, -1);
+        for (int cell = 0; cell < cells; cell++) {
+            int bx = bucket(key.getCenterX(cell / options, cell % options));
+            int by = bucket(key.getCenterY(cell / options, cell % options));
+            if (bx < 0 || by < 0) continue;
+            int b = by * gridCols + bx;
+            next[cell] = head[b];
+            head[b] = cell;
+        }
+
+        long[] studentOptions = new long[key.getQuestionCount()];
+        List<Circle> strayMarks = new ArrayList<>();
+        float maxDist2 = threshold * threshold;
+        for (Circle mark : studentMarks) {
+            int bx = bucket(mark.x);
+            int by = bucket(mark.y);
+            int best = -1;
+            float bestDist2 = maxDist2;
+            for (int y = Math.max(by - 1, 0); y <= Math.min(by + 1, gridRows - 1); y++) {
+                for (int x = Math.max(bx - 1, 0); x <= Math.min(bx + 1, gridCols - 1); x++) {
+                    for (int cell = head[y * gridCols + x]; cell != -1; cell = next[cell]) {
+                        float dx = key.getCenterX(cell / options, cell % options) - mark.x;
+                        float dy = key.getCenterY(cell / options, cell % options) - mark.y;
+                        float dist2 = dx * dx + dy * dy;
+                        if (dist2 < bestDist2) {
+                            bestDist2 = dist2;
+                            best = cell;
+                        }
+                    }
+                }
+            }
+            if (best < 0) {
+                strayMarks.add(mark);
+            } else {
+                studentOptions[best / options] |= 1L << (best % options);
+            }
+        }
+        return new GradeResult(key, studentOptions, strayMarks);
+    }
+
+    private int bucket(float coordinate) {
+        return (int) Math.floor(coordinate / threshold);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mcq_grader.core;
+
+import java.util.Arrays;
+
+// Latencies in fixed logarithmic buckets: bucket i holds the samples up to MIN_NANOS * GROWTH^i, so a
+// percentile is known to within GROWTH (about 19%), recording is an array increment and the memory stays
+// the same however many samples come in. Samples beyond the last bucket land in it. Thread safe.
+public final class LatencyHistogram {
+    static final long MIN_NANOS = 10_000;
+    static final double GROWTH = Math.pow(2, 0.25);
+    // The last bucket ends at about 140 s.
+    static final int BUCKETS = 96;
+    private static final long[] UPPER = new long[BUCKETS];
+
+    static {
+        for (int i = 0; i < BUCKETS; i++) {
+            UPPER[i] = Math.round(MIN_NANOS * Math.pow(GROWTH, i));
+        }
+    }
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public synchronized void record(long nanos) {
+        counts[bucket(nanos)]++;
+        count++;
+        sum += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMaxNanos() {
+        return max;
+    }
+
+    public synchronized double getMeanNanos() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Latency at or under which the fraction p of the samples fall, as its bucket's upper bound (never
+    // more than the largest sample), or 0 without samples.
+    public synchronized long getPercentileNanos(double p) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            // The last bucket has no upper bound of its own.
+            if (seen >= rank) return i < BUCKETS - 1 ? Math.min(UPPER[i], max) : max;
+        }
+        return max;
+    }
+
+    public synchronized long getBucketCount(int bucket) {
+        return counts[bucket];
+    }
+
+    public static long getBucketUpperNanos(int bucket) {
+        return UPPER[bucket];
+    }
+
+    static int bucket(long nanos) {
+        int i = Arrays.binarySearch(UPPER, nanos);
+        if (i < 0) i = -i - 1;
+        return Math.min(i, BUCKETS - 1);
+    }
+}
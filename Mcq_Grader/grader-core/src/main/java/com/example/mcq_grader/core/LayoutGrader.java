@@ -0,0 +1,66 @@
+package com.example.mcq_grader.core;
+
+import java.util.Collections;
+
+// Grades sheets whose bubble positions are known up front: a declared SheetLayout, or the cells of the
+// answer key. Bubbles are read with a fixed scan over the layout instead of a contour search.
+public class LayoutGrader<I> {
+    // Cells at least this full count as marked.
+    public static final float DEFAULT_FILL_THRESHOLD = 0.4f;
+
+    private final SheetDetector<I> detector;
+    private final CellReader<I> reader;
+    private final float fillThreshold;
+
+    public LayoutGrader(SheetDetector<I> detector, CellReader<I> reader, float fillThreshold) {
+        this.detector = detector;
+        this.reader = reader;
+        this.fillThreshold = fillThreshold;
+    }
+
+    // Marks of a photo: detects and warps the sheet, then reads it.
+    public SheetMarks readMarks(I image, CompiledLayout layout) {
+        I sheet = detector.detectSheet(image);
+        try {
+            return readSheet(sheet, layout);
+        } finally {
+            detector.release(sheet);
+        }
+    }
+
+    // Marks of a sheet that is already warped.
+    public SheetMarks readSheet(I sheet, CompiledLayout layout) {
+        return new SheetMarks(layout, reader.readCells(sheet, layout), fillThreshold);
+    }
+
+    // Marked options of a photo, one bitset per question.
+    public long[] readAnswers(I image, CompiledLayout layout) {
+        return readMarks(image, layout).getMarkedOptions();
+    }
+
+    public AnswerKey compileKey(I teacherImage, CompiledLayout layout) {
+        return compileKey(readMarks(teacherImage, layout));
+    }
+
+    // Key from the marks of a teacher sheet, on the layout they were read with. Whatever the ink, like
+    // student sheets.
+    public AnswerKey compileKey(SheetMarks teacherMarks) {
+        return teacherMarks.getLayout().toAnswerKey(teacherMarks.getMarkedOptions().clone());
+    }
+
+    public GradeResult grade(I studentImage, AnswerKey key) {
+        return new GradeResult(key, readAnswers(studentImage, key.getLayout()), Collections.emptyList());
+    }
+
+    public GradeResult gradeSheet(I sheet, AnswerKey key) {
+        return grade(readSheet(sheet, key.getLayout()), key);
+    }
+
+    // Scores marks that were read earlier, e.g. when the sheet was captured.
+    public GradeResult grade(SheetMarks marks, AnswerKey key) {
+        if (marks.getLayout() != key.getLayout()) {
+            throw new IllegalArgumentException("Marks were not read with the key's layout");
+        }
+        return new GradeResult(key, marks.getMarkedOptions(), Collections.emptyList());
+    }
+}
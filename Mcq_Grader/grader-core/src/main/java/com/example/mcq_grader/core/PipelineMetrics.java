@@ -0,0 +1,87 @@
+package com.example.mcq_grader.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Per-stage measurements of the grading pipeline and the live scan: a LatencyHistogram of every stage, and
+// how much the Java heap and the native heap grew during it, summed over its runs. The growth is whatever
+// the caller sampled around the stage, not bytes the stage itself allocated. Stages are named by the
+// caller and listed in the order they were first recorded. Thread safe.
+public final class PipelineMetrics {
+    private static final double MB = 1024 * 1024;
+
+    private static final class StageStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long heapBytes;
+        long nativeBytes;
+    }
+
+    private final Map<String, StageStats> stages = new LinkedHashMap<>();
+
+    // One run of a stage: how long it took and by how many bytes the heap and the native heap grew.
+    public synchronized void record(String stage, long nanos, long heapBytes, long nativeBytes) {
+        StageStats stats = stages.computeIfAbsent(stage, s -> new StageStats());
+        stats.latency.record(nanos);
+        stats.heapBytes += heapBytes;
+        stats.nativeBytes += nativeBytes;
+    }
+
+    public synchronized boolean isEmpty() {
+        return stages.isEmpty();
+    }
+
+    // The stage's latencies, or null if it never ran.
+    public synchronized LatencyHistogram getLatency(String stage) {
+        StageStats stats = stages.get(stage);
+        return stats != null ? stats.latency : null;
+    }
+
+    public synchronized long getHeapBytes(String stage) {
+        StageStats stats = stages.get(stage);
+        return stats != null ? stats.heapBytes : 0;
+    }
+
+    public synchronized long getNativeBytes(String stage) {
+        StageStats stats = stages.get(stage);
+        return stats != null ? stats.nativeBytes : 0;
+    }
+
+    // One line per stage: runs, p50/p95/p99 latency and the heap and native growth per run.
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, StageStats> e : stages.entrySet()) {
+            StageStats stats = e.getValue();
+            LatencyHistogram latency = stats.latency;
+            long runs = latency.getCount();
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(String.format(Locale.ROOT,
+                    "%-13s n=%-4d p50 %6.1f p95 %6.1f p99 %6.1f ms heap +%.1f native +%.1f MB/run",
+                    e.getKey(), runs, millis(latency.getPercentileNanos(0.5)),
+                    millis(latency.getPercentileNanos(0.95)), millis(latency.getPercentileNanos(0.99)),
+                    stats.heapBytes / MB / runs, stats.nativeBytes / MB / runs));
+        }
+        return sb.toString();
+    }
+
+    // The summary, then every non-empty bucket as "stage,upper bound in ms,count" lines.
+    public synchronized void writeTo(Writer out) throws IOException {
+        out.write(summary());
+        out.write("\n\nstage,bucket_ms,count\n");
+        for (Map.Entry<String, StageStats> e : stages.entrySet()) {
+            LatencyHistogram latency = e.getValue().latency;
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                long n = latency.getBucketCount(i);
+                if (n == 0) continue;
+                out.write(String.format(Locale.ROOT, "%s,%.3f,%d\n",
+                        e.getKey(), millis(LatencyHistogram.getBucketUpperNanos(i)), n));
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.mcq_grader.core;
+
+// Finds the answer sheet in a photo and returns it warped to the canonical sheet size.
+// I is the image type of the adapter (an OpenCV Mat, an Android Bitmap, ...).
+public interface SheetDetector<I> {
+
+    // The returned sheet may be a buffer the detector reuses, so it is only valid until the next
+    // detectSheet call: copy it to keep it. Never free it directly; hand it back to release() when done.
+    I detectSheet(I image);
+
+    // Done with a sheet from detectSheet. Frees it, unless the detector keeps the buffer for the next one.
+    void release(I image);
+}
@@ -0,0 +1,107 @@
+package com.example.mcq_grader.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Declarative description of where the bubbles are on a sheet, in pixels of the canonical
+// 700x800 warp produced by the sheet detector. A sheet is a list of blocks; each block is a grid of
+// rows (questions) by options. Questions are numbered block after block.
+//
+//   SheetLayout layout = new SheetLayout()
+//           .addBlock(90, 74, 20, 4, 40, 34, 12)
+//           .addBlock(390, 74, 20, 4, 40, 34, 12);
+public class SheetLayout {
+    public static final int CANONICAL_WIDTH = 700;
+    public static final int CANONICAL_HEIGHT = 800;
+    public static final int ROWS_PER_BLOCK = 25;
+
+    public static class Block {
+        // Center of the bubble of the first row and first option.
+        public final float x;
+        public final float y;
+        public final int rows;
+        public final int options;
+        // Distance between neighbouring bubble centers, across options and down rows.
+        public final float optionPitch;
+        public final float rowPitch;
+        public final float radius;
+
+        public Block(float x, float y, int rows, int options, float optionPitch, float rowPitch, float radius) {
+            this.x = x;
+            this.y = y;
+            this.rows = rows;
+            this.options = options;
+            this.optionPitch = optionPitch;
+            this.rowPitch = rowPitch;
+            this.radius = radius;
+        }
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+
+    public SheetLayout addBlock(float x, float y, int rows, int options,
+                                float optionPitch, float rowPitch, float radius) {
+        blocks.add(new Block(x, y, rows, options, optionPitch, rowPitch, radius));
+        return this;
+    }
+
+    public List<Block> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    // The default printed sheet: questions split over as few blocks of up to ROWS_PER_BLOCK rows as
+    // possible, blocks side by side across the page, pitches shrinking to fit.
+    public static SheetLayout standard(int questions, int options) {
+        int blockCount = (questions + ROWS_PER_BLOCK - 1) / ROWS_PER_BLOCK;
+        int rowsPerBlock = (questions + blockCount - 1) / blockCount;
+        float blockWidth = (CANONICAL_WIDTH - 100) / (float) blockCount;
+        float optionPitch = Math.min(40, (blockWidth - 40) / options);
+        float rowPitch = Math.min(40, (CANONICAL_HEIGHT - 120) / (float) rowsPerBlock);
+        float radius = Math.min(12, 0.35f * Math.min(optionPitch, rowPitch));
+
+        SheetLayout layout = new SheetLayout();
+        for (int b = 0; b < blockCount; b++) {
+            int rows = Math.min(rowsPerBlock, questions - b * rowsPerBlock);
+            float x = 50 + b * blockWidth + 40 + 0.5f * optionPitch;
+            float y = 60 + 0.5f * rowPitch;
+            layout.addBlock(x, y, rows, options, optionPitch, rowPitch, radius);
+        }
+        return layout;
+    }
+
+    // Flattens the blocks into the per-cell lookup table used to read sheets.
+    public CompiledLayout compile() {
+        if (blocks.isEmpty()) {
+            throw new IllegalStateException("Sheet layout has no blocks");
+        }
+        int options = blocks.get(0).options;
+        int questions = 0;
+        float radius = 0;
+        for (Block block : blocks) {
+            if (block.options != options) {
+                throw new IllegalStateException("All blocks must have the same number of options");
+            }
+            questions += block.rows;
+            radius = Math.max(radius, block.radius);
+        }
+
+        float[] centers = new float[questions * options * 2];
+        float[] radii = new float[questions * options];
+        int cell = 0;
+        for (Block block : blocks) {
+            for (int row = 0; row < block.rows; row++) {
+                for (int o = 0; o < options; o++) {
+                    centers[cell * 2] = block.x + o * block.optionPitch;
+                    centers[cell * 2 + 1] = block.y + row * block.rowPitch;
+                    radii[cell] = block.radius;
+                    cell++;
+                }
+            }
+        }
+        // A copy, so blocks added later do not change what the compiled layout says it came from.
+        SheetLayout declared = new SheetLayout();
+        declared.blocks.addAll(blocks);
+        return new CompiledLayout(questions, options, radius, centers, radii, declared);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.mcq_grader.core;
+
+// Fill ratio of every bubble of a sheet read through a compiled layout, with the marks decided by a
+// fill threshold. Keeps the raw darkness so callers can tell a clear blank from a faint or erased mark.
+public class SheetMarks {
+    private final CompiledLayout layout;
+    private final float[] fill;
+    private final float threshold;
+    private final long[] marked;
+
+    public SheetMarks(CompiledLayout layout, float[] fill, float threshold) {
+        if (fill.length != layout.getCellCount()) {
+            throw new IllegalArgumentException("Expected " + layout.getCellCount() + " cells, got " + fill.length);
+        }
+        this.layout = layout;
+        this.fill = fill;
+        this.threshold = threshold;
+        this.marked = layout.markedOptions(fill, threshold);
+    }
+
+    public CompiledLayout getLayout() {
+        return layout;
+    }
+
+    public int getQuestionCount() {
+        return layout.getQuestionCount();
+    }
+
+    // Share of ink pixels in the cell, 0 for blank paper and 1 for a fully filled bubble.
+    public float getFill(int question, int option) {
+        return fill[question * layout.getOptionCount() + option];
+    }
+
+    // Fill of the darkest option of a question.
+    public float getMaxFill(int question) {
+        int options = layout.getOptionCount();
+        float max = 0;
+        for (int cell = question * options; cell < (question + 1) * options; cell++) {
+            max = Math.max(max, fill[cell]);
+        }
+        return max;
+    }
+
+    // Per question bitset of the options at or above the threshold. The array is shared.
+    public long[] getMarkedOptions() {
+        return marked;
+    }
+
+    public boolean isBlank(int question) {
+        return marked[question] == 0;
+    }
+
+    public boolean isMultiple(int question) {
+        return Long.bitCount(marked[question]) > 1;
+    }
+
+    // A question with an option that is neither clearly blank nor clearly marked, such as a light
+    // pencil mark or an erasure.
+    public boolean isUncertain(int question) {
+        int options = layout.getOptionCount();
+        for (int cell = question * options; cell < (question + 1) * options; cell++) {
+            if (fill[cell] >= threshold / 2 && fill[cell] < threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
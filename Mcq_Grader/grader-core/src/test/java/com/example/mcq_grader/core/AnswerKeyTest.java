@@ -0,0 +1,99 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AnswerKeyTest {
+    // Three questions, four option columns; the last question has two marks.
+    private static final List<Circle> MARKS = Arrays.asList(
+            new Circle(101, 200, 18), new Circle(250, 198, 18),
+            new Circle(176, 301, 18), new Circle(100, 402, 18),
+            new Circle(326, 399, 18));
+
+    @Test
+    public void compile_groupsMarksIntoQuestionsAndOptions() {
+        AnswerKey key = AnswerKey.compile(MARKS);
+
+        assertEquals(3, key.getQuestionCount());
+        assertEquals(4, key.getOptionCount());
+        assertEquals(5, key.getMarkCount());
+        assertTrue(key.isSelected(0, 0));
+        assertTrue(key.isSelected(0, 2));
+        assertEquals(0b0010L, key.getSelectedOptions(1));
+        assertEquals(0b1001L, key.getSelectedOptions(2));
+        assertEquals(100.5f, key.getCenterX(2, 0), 0.01f);
+        assertEquals(400.5f, key.getCenterY(2, 3), 0.01f);
+    }
+
+    @Test
+    public void keyReadOnALayout_keepsOptionsTheKeyNeverUses() {
+        // Every answer is A: the options B to D only exist on the layout.
+        CompiledLayout layout = new SheetLayout().addBlock(100, 80, 3, 4, 40, 30, 10).compile();
+        LayoutGrader<Object> grader = new LayoutGrader<>(null, null, 0.4f);
+        AnswerKey key = grader.compileKey(new SheetMarks(layout, new float[] {
+                0.9f, 0, 0, 0,
+                0.8f, 0, 0, 0,
+                0.9f, 0.1f, 0, 0}, 0.4f));
+
+        assertEquals(4, key.getOptionCount());
+        assertSame(layout, key.getLayout());
+        assertEquals(0b0001L, key.getSelectedOptions(2));
+
+        // Question 1 marked on C, question 2 on A and C, question 3 left blank.
+        SheetMarks marks = new SheetMarks(layout, new float[] {
+                0, 0, 0.9f, 0,
+                0.9f, 0, 0.8f, 0,
+                0, 0, 0, 0}, 0.4f);
+        GradeResult result = grader.grade(marks, key);
+        assertEquals(GradeResult.Status.WRONG, result.getStatus(0));
+        assertEquals(GradeResult.Status.MULTIPLE, result.getStatus(1));
+        assertEquals(GradeResult.Status.BLANK, result.getStatus(2));
+    }
+
+    @Test
+    public void writeTo_readFrom_roundTrips() throws IOException {
+        AnswerKey key = AnswerKey.compile(MARKS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        key.writeTo(out);
+
+        AnswerKey loaded = AnswerKey.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(key.getQuestionCount(), loaded.getQuestionCount());
+        assertEquals(key.getOptionCount(), loaded.getOptionCount());
+        assertEquals(key.getRadius(), loaded.getRadius(), 0f);
+        for (int q = 0; q < key.getQuestionCount(); q++) {
+            assertEquals(key.getSelectedOptions(q), loaded.getSelectedOptions(q));
+            for (int o = 0; o < key.getOptionCount(); o++) {
+                assertEquals(key.getCenterX(q, o), loaded.getCenterX(q, o), 0f);
+                assertEquals(key.getCenterY(q, o), loaded.getCenterY(q, o), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void writeTo_readFrom_keepsTheSheetLayout() throws IOException {
+        SheetLayout sheet = SheetLayout.standard(40, 5);
+        AnswerKey key = sheet.compile().toAnswerKey(new long[40]);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        key.writeTo(out);
+
+        AnswerKey loaded = AnswerKey.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertNotNull(loaded.getSheetLayout());
+        assertEquals(2, loaded.getSheetLayout().getBlocks().size());
+        assertArrayEquals(key.getLayout().getRois(), loaded.getLayout().getRois());
+        assertNull(AnswerKey.compile(MARKS).getSheetLayout());
+    }
+
+    @Test(expected = IOException.class)
+    public void readFrom_rejectsOtherFiles() throws IOException {
+        AnswerKey.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CornerStabilityTest {
+    private static final int WIDTH = 720, HEIGHT = 1280;
+
+    private static double[] sheet(double dx) {
+        return new double[]{100 + dx, 150, 620 + dx, 160, 610 + dx, 1100, 95 + dx, 1090};
+    }
+
+    @Test
+    public void update_isStableAfterEnoughStillFrames() {
+        CornerStability stability = new CornerStability(0.01, 3, 0.2);
+
+        assertFalse(stability.update(sheet(0), WIDTH, HEIGHT));
+        assertFalse(stability.update(sheet(2), WIDTH, HEIGHT));
+        assertFalse(stability.update(sheet(1), WIDTH, HEIGHT));
+        assertTrue(stability.update(sheet(3), WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void update_startsOverWhenTheSheetMovesOrIsLost() {
+        CornerStability stability = new CornerStability(0.01, 2, 0.2);
+        stability.update(sheet(0), WIDTH, HEIGHT);
+        stability.update(sheet(0), WIDTH, HEIGHT);
+
+        assertFalse(stability.update(sheet(40), WIDTH, HEIGHT));
+        assertEquals(0, stability.getStillFrames());
+        stability.update(sheet(40), WIDTH, HEIGHT);
+        assertFalse(stability.update(null, WIDTH, HEIGHT));
+        assertEquals(0, stability.getStillFrames());
+    }
+
+    @Test
+    public void update_ignoresSheetsTooSmallInTheFrame() {
+        CornerStability stability = new CornerStability(0.01, 1, 0.2);
+        double[] small = {300, 500, 400, 500, 400, 620, 300, 620};
+
+        stability.update(small, WIDTH, HEIGHT);
+        assertFalse(stability.update(small, WIDTH, HEIGHT));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeometryTest {
+    @Test
+    public void reorderPoints_returnsClockwiseFromTopLeft() {
+        // bottom-right, top-left, bottom-left, top-right of a slightly rotated sheet
+        double[] quad = {690, 810, 12, 8, 5, 790, 701, 15};
+
+        double[] ordered = Geometry.reorderPoints(quad);
+
+        assertArrayEquals(new double[]{12, 8, 701, 15, 690, 810, 5, 790}, ordered, 0);
+    }
+
+    @Test
+    public void reorderPoints_leavesOtherShapesUntouched() {
+        double[] triangle = {0, 0, 10, 0, 5, 5};
+
+        assertSame(triangle, Geometry.reorderPoints(triangle));
+    }
+
+    @Test
+    public void quadArea_isTheSameForEitherWinding() {
+        double[] clockwise = {0, 0, 4, 0, 4, 3, 0, 3};
+        double[] anticlockwise = {0, 0, 0, 3, 4, 3, 4, 0};
+
+        assertEquals(12, Geometry.quadArea(clockwise), 0);
+        assertEquals(12, Geometry.quadArea(anticlockwise), 0);
+    }
+
+    @Test
+    public void orientationMatrix_turnsCornersOfTheImageUpright() {
+        // 4x2 image: corners at (0,0), (3,0), (3,1), (0,1).
+        double[] corners = {0, 0, 3, 0, 3, 1, 0, 1};
+
+        // A quarter turn clockwise: the top-left corner ends up top-right of the 2x4 result.
+        assertArrayEquals(new double[]{1, 0, 1, 3, 0, 3, 0, 0},
+                Geometry.transform(Geometry.orientationMatrix(90, false, 4, 2), corners), 1e-9);
+        // Flip then 270: the transpose, (x, y) -> (y, x).
+        assertArrayEquals(new double[]{0, 0, 0, 3, 1, 3, 1, 0},
+                Geometry.transform(Geometry.orientationMatrix(270, true, 4, 2), corners), 1e-9);
+        assertArrayEquals(corners,
+                Geometry.transform(Geometry.orientationMatrix(0, false, 4, 2), corners), 0);
+    }
+}
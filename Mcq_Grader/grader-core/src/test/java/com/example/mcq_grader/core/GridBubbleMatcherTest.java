@@ -0,0 +1,54 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class GridBubbleMatcherTest {
+    // Four questions with options at x = 100, 140, 180; key answers A, B, C, A.
+    private static final AnswerKey KEY = AnswerKey.compile(Arrays.asList(
+            new Circle(100, 100, 12), new Circle(140, 140, 12),
+            new Circle(180, 180, 12), new Circle(100, 220, 12)));
+
+    private final GridBubbleMatcher matcher = new GridBubbleMatcher(25);
+
+    @Test
+    public void match_scoresEveryQuestion() {
+        GradeResult result = matcher.match(KEY, Arrays.asList(
+                new Circle(103, 98, 12),                           // q1 A: correct
+                new Circle(178, 141, 12),                          // q2 C: wrong
+                new Circle(181, 182, 12), new Circle(139, 178, 12) // q3 B+C: multiple
+                                                                   // q4: blank
+        ));
+
+        assertEquals(GradeResult.Status.CORRECT, result.getStatus(0));
+        assertEquals(GradeResult.Status.WRONG, result.getStatus(1));
+        assertEquals(GradeResult.Status.MULTIPLE, result.getStatus(2));
+        assertEquals(GradeResult.Status.BLANK, result.getStatus(3));
+        assertEquals(0b110L, result.getStudentOptions(2));
+        assertEquals("1 / 4 correct", result.getSummary());
+    }
+
+    @Test
+    public void match_picksTheNearestCellWithinThreshold() {
+        // Halfway between A and B of q1, slightly closer to B.
+        GradeResult result = matcher.match(KEY, Collections.singletonList(new Circle(121, 100, 12)));
+
+        assertTrue(result.isMarked(0, 1));
+        assertFalse(result.isMarked(0, 0));
+    }
+
+    @Test
+    public void match_reportsMarksOffTheBubblesAsStray() {
+        Circle stray = new Circle(400, 100, 12);
+
+        GradeResult result = matcher.match(KEY, Arrays.asList(stray, new Circle(-30, -30, 12)));
+
+        assertEquals(2, result.getStrayMarks().size());
+        assertSame(stray, result.getStrayMarks().get(0));
+        assertEquals(0, result.getCorrectCount());
+    }
+}
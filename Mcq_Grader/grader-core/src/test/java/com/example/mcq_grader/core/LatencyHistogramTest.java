@@ -0,0 +1,44 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+    private static final long MS = 1_000_000;
+
+    @Test
+    public void getPercentileNanos_isWithinOneBucketOfTheExactValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1..100 ms, so the exact p50, p95 and p99 are 50, 95 and 99 ms.
+        for (int i = 100; i >= 1; i--) {
+            histogram.record(i * MS);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100 * MS, histogram.getMaxNanos());
+        assertEquals(50.5 * MS, histogram.getMeanNanos(), 1);
+        long[] exact = {50 * MS, 95 * MS, 99 * MS};
+        double[] p = {0.5, 0.95, 0.99};
+        for (int i = 0; i < p.length; i++) {
+            long measured = histogram.getPercentileNanos(p[i]);
+            assertTrue("p" + p[i] + " " + measured, measured >= exact[i]);
+            assertTrue("p" + p[i] + " " + measured, measured <= exact[i] * LatencyHistogram.GROWTH);
+        }
+    }
+
+    @Test
+    public void getPercentileNanos_neverExceedsTheLargestSample() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+
+        histogram.record(3 * MS);
+        histogram.record(1);
+        histogram.record(Long.MAX_VALUE / 2);
+
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(LatencyHistogram.BUCKETS - 1));
+        assertEquals(Long.MAX_VALUE / 2, histogram.getPercentileNanos(1.0));
+        assertTrue(histogram.getPercentileNanos(0.5) <= 3 * MS * LatencyHistogram.GROWTH);
+    }
+}
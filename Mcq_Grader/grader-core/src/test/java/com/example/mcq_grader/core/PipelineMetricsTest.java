@@ -0,0 +1,35 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+    private static final long MS = 1_000_000;
+
+    @Test
+    public void record_keepsLatencyAndByteCountersPerStageInOrder() throws IOException {
+        PipelineMetrics metrics = new PipelineMetrics();
+        assertTrue(metrics.isEmpty());
+        metrics.record("WARP", 40 * MS, 1000, 8_000_000);
+        metrics.record("DECODE", 120 * MS, 5000, 0);
+        metrics.record("WARP", 60 * MS, 3000, 8_000_000);
+
+        assertEquals(2, metrics.getLatency("WARP").getCount());
+        assertNull(metrics.getLatency("SCORE"));
+        assertEquals(4000, metrics.getHeapBytes("WARP"));
+        assertEquals(16_000_000, metrics.getNativeBytes("WARP"));
+
+        String[] lines = metrics.summary().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].startsWith("WARP") && lines[0].contains("n=2"));
+        assertTrue(lines[1], lines[1].startsWith("DECODE"));
+
+        StringWriter dump = new StringWriter();
+        metrics.writeTo(dump);
+        assertTrue(dump.toString().startsWith(metrics.summary()));
+        assertEquals(3, dump.toString().split("\n").length - lines.length - 2);
+    }
+}
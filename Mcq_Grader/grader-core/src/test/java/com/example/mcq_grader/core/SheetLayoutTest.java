@@ -0,0 +1,64 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SheetLayoutTest {
+
+    @Test
+    public void compile_numbersQuestionsBlockAfterBlock() {
+        CompiledLayout layout = new SheetLayout()
+                .addBlock(100, 80, 2, 3, 40, 30, 10)
+                .addBlock(400, 80, 1, 3, 40, 30, 10)
+                .compile();
+
+        assertEquals(3, layout.getQuestionCount());
+        assertEquals(3, layout.getOptionCount());
+        // q2 option C, then q3 option A.
+        assertEquals(180, layout.getCenterX(5), 0);
+        assertEquals(110, layout.getCenterY(5), 0);
+        assertEquals(400, layout.getCenterX(6), 0);
+        assertEquals(80, layout.getCenterY(6), 0);
+    }
+
+    @Test
+    public void compile_roisAreSquaresInsideTheBubble() {
+        CompiledLayout layout = new SheetLayout().addBlock(100, 80, 1, 2, 40, 30, 10).compile();
+        int[] rois = layout.getRois();
+
+        assertArrayEquals(new int[] {93, 73, 14, 14, 133, 73, 14, 14}, rois);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void compile_rejectsBlocksWithDifferentOptionCounts() {
+        new SheetLayout()
+                .addBlock(100, 80, 5, 4, 40, 30, 10)
+                .addBlock(400, 80, 5, 5, 40, 30, 10)
+                .compile();
+    }
+
+    @Test
+    public void standard_fitsTheCanonicalSheet() {
+        CompiledLayout layout = SheetLayout.standard(60, 5).compile();
+        int[] rois = layout.getRois();
+
+        assertEquals(60, layout.getQuestionCount());
+        for (int i = 0; i < rois.length; i += 4) {
+            assertTrue(rois[i] >= 0 && rois[i] + rois[i + 2] <= SheetLayout.CANONICAL_WIDTH);
+            assertTrue(rois[i + 1] >= 0 && rois[i + 1] + rois[i + 3] <= SheetLayout.CANONICAL_HEIGHT);
+        }
+    }
+
+    @Test
+    public void markedOptions_andKeyFollowTheFillRatios() {
+        CompiledLayout layout = new SheetLayout().addBlock(100, 80, 2, 3, 40, 30, 10).compile();
+        long[] marked = layout.markedOptions(new float[] {0.9f, 0.1f, 0.5f, 0, 0.39f, 0}, 0.4f);
+
+        assertArrayEquals(new long[] {0b101, 0}, marked);
+        AnswerKey key = layout.toAnswerKey(marked);
+        assertTrue(key.isSelected(0, 2));
+        assertEquals(180, key.getCenterX(1, 2), 0);
+        assertEquals(layout.getRois()[20], key.getLayout().getRois()[20]);
+    }
+}
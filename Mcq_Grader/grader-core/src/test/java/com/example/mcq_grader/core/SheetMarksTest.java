@@ -0,0 +1,35 @@
+package com.example.mcq_grader.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SheetMarksTest {
+    private static final CompiledLayout LAYOUT =
+            new SheetLayout().addBlock(100, 80, 4, 3, 40, 30, 10).compile();
+
+    @Test
+    public void marks_separateBlankSingleMultipleAndFaint() {
+        SheetMarks marks = new SheetMarks(LAYOUT, new float[] {
+                0.95f, 0.05f, 0.02f,   // q1: A
+                0.03f, 0.01f, 0.04f,   // q2: blank
+                0.90f, 0.85f, 0.00f,   // q3: A+B
+                0.02f, 0.25f, 0.00f    // q4: faint B, below threshold
+        }, 0.4f);
+
+        assertArrayEquals(new long[] {0b001, 0, 0b011, 0}, marks.getMarkedOptions());
+        assertFalse(marks.isBlank(0));
+        assertTrue(marks.isBlank(1));
+        assertTrue(marks.isMultiple(2));
+        assertTrue(marks.isBlank(3));
+        assertTrue(marks.isUncertain(3));
+        assertFalse(marks.isUncertain(1));
+        assertEquals(0.25f, marks.getMaxFill(3), 0);
+        assertEquals(0.85f, marks.getFill(2, 1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void marks_rejectFillOfAnotherLayout() {
+        new SheetMarks(LAYOUT, new float[5], 0.4f);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.Geometry;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.opencv.video.KalmanFilter;
+import org.opencv.video.SparsePyrLKOpticalFlow;
+
+// Follows the four sheet corners from one preview frame to the next, so the full outline search of
+// ImageProcessor.findSheetCorners only runs when the sheet is first seen or tracking is lost. Corners are
+// moved with pyramidal Lucas-Kanade optical flow and trusted only if tracking them back lands within
+// MAX_FB_ERROR of where they started and the quad keeps its shape; one untrusted corner means the
+// detector runs again. The tracked corners are smoothed by a constant velocity Kalman filter.
+// One tracker per camera stream; not thread safe.
+public final class CornerTracker {
+    // Forward-backward error above which a tracked corner is not trusted, in pixels.
+    private static final double MAX_FB_ERROR = 1.0;
+    // Largest change of the quad's area from one frame to the next that is still the same sheet.
+    private static final double MAX_AREA_CHANGE = 1.3;
+    // State: x, y of the four corners, then their velocities in pixels per frame.
+    private static final int STATE = 16;
+    private static final int MEASURED = 8;
+
+    private final SparsePyrLKOpticalFlow flow = SparsePyrLKOpticalFlow.create(new Size(21, 21), 3);
+    private final KalmanFilter kalman = new KalmanFilter(STATE, MEASURED, 0, CvType.CV_32F);
+    private final Mat prevGray = new Mat();
+    private final MatOfPoint2f prevPts = new MatOfPoint2f();
+    private final MatOfPoint2f nextPts = new MatOfPoint2f();
+    private final MatOfPoint2f backPts = new MatOfPoint2f();
+    private final MatOfByte status = new MatOfByte();
+    private final MatOfByte backStatus = new MatOfByte();
+    private final MatOfFloat err = new MatOfFloat();
+    private final Mat measurement = new Mat(MEASURED, 1, CvType.CV_32F);
+    private final float[] state = new float[STATE];
+    private double[] last;
+    private int detections;
+
+    public CornerTracker() {
+        try (MatScope scope = MatScope.open("CornerTracker")) {
+            Mat transition = scope.track(Mat.eye(STATE, STATE, CvType.CV_32F));
+            for (int i = 0; i < MEASURED; i++) {
+                transition.put(i, MEASURED + i, 1);
+            }
+            // The filter keeps its own reference to each matrix.
+            kalman.set_transitionMatrix(transition);
+            kalman.set_measurementMatrix(scope.track(Mat.eye(MEASURED, STATE, CvType.CV_32F)));
+            kalman.set_processNoiseCov(scope.track(scaledEye(STATE, 0.1)));
+            kalman.set_measurementNoiseCov(scope.track(scaledEye(MEASURED, 0.5)));
+        }
+    }
+
+    // Corners of the sheet in this gray frame, ordered top-left, top-right, bottom-right, bottom-left as
+    // 8 doubles (see Geometry), or null when there is no sheet.
+    public double[] update(Mat gray) {
+        double[] measured = last != null ? track(gray) : null;
+        double[] corners;
+        if (measured != null) {
+            kalman.predict();
+            float[] m = new float[MEASURED];
+            for (int i = 0; i < MEASURED; i++) m[i] = (float) measured[i];
+            measurement.put(0, 0, m);
+            kalman.correct(measurement).get(0, 0, state);
+            corners = new double[MEASURED];
+            for (int i = 0; i < MEASURED; i++) corners[i] = state[i];
+        } else {
+            measured = detect(gray);
+            if (measured == null) {
+                last = null;
+                return null;
+            }
+            restart(measured);
+            corners = measured;
+        }
+        gray.copyTo(prevGray);
+        prevPts.fromArray(toPoints(measured));
+        last = measured;
+        return corners;
+    }
+
+    // Forgets the sheet, e.g. when the camera restarts; the next frame runs the detector.
+    public void reset() {
+        last = null;
+    }
+
+    // Times the full outline search has run.
+    public int getDetectionCount() {
+        return detections;
+    }
+
+    public void release() {
+        prevGray.release();
+        prevPts.release();
+        nextPts.release();
+        backPts.release();
+        status.release();
+        backStatus.release();
+        err.release();
+        measurement.release();
+    }
+
+    private double[] detect(Mat gray) {
+        detections++;
+        MatOfPoint2f found = ImageProcessor.findSheetCorners(gray);
+        if (found == null) return null;
+        Point[] pts = found.toArray();
+        found.release();
+        double[] quad = new double[8];
+        for (int i = 0; i < 4; i++) {
+            quad[i * 2] = pts[i].x;
+            quad[i * 2 + 1] = pts[i].y;
+        }
+        return quad;
+    }
+
+    // Tracked corners, or null if any of them is not trusted.
+    private double[] track(Mat gray) {
+        flow.calc(prevGray, gray, prevPts, nextPts, status, err);
+        flow.calc(gray, prevGray, nextPts, backPts, backStatus, err);
+        byte[] ok = status.toArray();
+        byte[] backOk = backStatus.toArray();
+        Point[] next = nextPts.toArray();
+        Point[] back = backPts.toArray();
+        double[] quad = new double[8];
+        for (int i = 0; i < 4; i++) {
+            if (ok[i] == 0 || backOk[i] == 0
+                    || Math.hypot(back[i].x - last[i * 2], back[i].y - last[i * 2 + 1]) > MAX_FB_ERROR) {
+                return null;
+            }
+            quad[i * 2] = next[i].x;
+            quad[i * 2 + 1] = next[i].y;
+        }
+        double ratio = Geometry.quadArea(quad) / Geometry.quadArea(last);
+        if (ratio > MAX_AREA_CHANGE || ratio < 1 / MAX_AREA_CHANGE || !isConvex(quad)) {
+            return null;
+        }
+        return quad;
+    }
+
+    // A detected sheet starts at rest, with a wide error so the first measurements are followed closely.
+    private void restart(double[] corners) {
+        try (MatScope scope = MatScope.open("CornerTracker")) {
+            Mat statePost = scope.track(Mat.zeros(STATE, 1, CvType.CV_32F));
+            for (int i = 0; i < MEASURED; i++) {
+                statePost.put(i, 0, corners[i]);
+            }
+            kalman.set_statePost(statePost);
+            kalman.set_errorCovPost(scope.track(scaledEye(STATE, 10)));
+        }
+    }
+
+    private static boolean isConvex(double[] quad) {
+        int sign = 0;
+        for (int i = 0; i < 4; i++) {
+            int j = (i + 1) % 4, k = (i + 2) % 4;
+            double cross = (quad[j * 2] - quad[i * 2]) * (quad[k * 2 + 1] - quad[j * 2 + 1])
+                    - (quad[j * 2 + 1] - quad[i * 2 + 1]) * (quad[k * 2] - quad[j * 2]);
+            int s = cross > 0 ? 1 : cross < 0 ? -1 : 0;
+            if (s == 0 || (sign != 0 && s != sign)) return false;
+            sign = s;
+        }
+        return true;
+    }
+
+    private static Mat scaledEye(int size, double scale) {
+        Mat eye = Mat.eye(size, size, CvType.CV_32F);
+        eye.convertTo(eye, CvType.CV_32F, scale);
+        return eye;
+    }
+
+    private static Point[] toPoints(double[] quad) {
+        return new Point[]{
+                new Point(quad[0], quad[1]), new Point(quad[2], quad[3]),
+                new Point(quad[4], quad[5]), new Point(quad[6], quad[7])};
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mcq_grader.opencv;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import java.util.Locale;
+
+// Cheap check of a photo or preview frame before it goes through the pipeline: sharpness as the variance
+// of the Laplacian, brightness as the mean, and the shares of pixels clipped to black and to white, all
+// measured on a copy downscaled to at most SIZE pixels on its long side so the numbers do not depend on
+// the resolution and a preview frame is measured in a few milliseconds. Blur on the order of a bubble's
+// outline, or a frame too dark or blown out to tell ink from paper, is turned away here instead of
+// failing or mis-grading at the end.
+public final class FrameQuality {
+    public enum Problem { NONE, TOO_DARK, TOO_BRIGHT, BLURRY }
+
+    static final int SIZE = 320;
+    // A sharp sheet measures around 1000, blur of about a pixel at SIZE brings it under 100.
+    private static final double MIN_SHARPNESS = 100;
+    private static final double MIN_BRIGHTNESS = 40;
+    private static final double MAX_BRIGHTNESS = 220;
+    // Share of pixels at black, or at white, beyond which the paper or the ink has lost its detail.
+    private static final double MAX_CLIPPED = 0.2;
+    private static final double CLIP_LOW = 2;
+    private static final double CLIP_HIGH = 253;
+
+    private final double sharpness;
+    private final double brightness;
+    private final double darkClippedRatio;
+    private final double brightClippedRatio;
+
+    private FrameQuality(double sharpness, double brightness, double darkClippedRatio, double brightClippedRatio) {
+        this.sharpness = sharpness;
+        this.brightness = brightness;
+        this.darkClippedRatio = darkClippedRatio;
+        this.brightClippedRatio = brightClippedRatio;
+    }
+
+    // Measures a BGR, RGBA or gray image.
+    public static FrameQuality measure(Mat image) {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        try {
+            // Downscaled before the gray conversion, so a full resolution photo is read only once. A whole
+            // factor keeps INTER_AREA on its fast block-averaging path.
+            int factor = (Math.max(image.cols(), image.rows()) + SIZE - 1) / SIZE;
+            Mat small = arena.mat();
+            Imgproc.resize(image, small, new Size(image.cols() / factor, image.rows() / factor),
+                    0, 0, Imgproc.INTER_AREA);
+            Mat gray = small;
+            if (small.channels() != 1) {
+                gray = arena.mat();
+                Imgproc.cvtColor(small, gray,
+                        small.channels() == 4 ? Imgproc.COLOR_RGBA2GRAY : Imgproc.COLOR_BGR2GRAY);
+            }
+
+            Mat lap = arena.mat();
+            Imgproc.Laplacian(gray, lap, CvType.CV_32F);
+            double mean = Core.mean(lap).val[0];
+            Mat squared = arena.mat();
+            Core.multiply(lap, lap, squared);
+            double sharpness = Core.mean(squared).val[0] - mean * mean;
+
+            double brightness = Core.mean(gray).val[0];
+
+            Mat mask = arena.mat();
+            Imgproc.threshold(gray, mask, CLIP_HIGH - 1, 255, Imgproc.THRESH_BINARY);
+            double brightClipped = (double) Core.countNonZero(mask) / gray.total();
+            Imgproc.threshold(gray, mask, CLIP_LOW, 255, Imgproc.THRESH_BINARY_INV);
+            double darkClipped = (double) Core.countNonZero(mask) / gray.total();
+            return new FrameQuality(sharpness, brightness, darkClipped, brightClipped);
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    public double getSharpness() {
+        return sharpness;
+    }
+
+    public double getBrightness() {
+        return brightness;
+    }
+
+    // Share of pixels at black, e.g. in a shadow over the sheet.
+    public double getDarkClippedRatio() {
+        return darkClippedRatio;
+    }
+
+    // Share of pixels at white, e.g. in glare on the paper.
+    public double getBrightClippedRatio() {
+        return brightClippedRatio;
+    }
+
+    // Exposure is checked first: a dark frame also looks blurry.
+    public Problem getProblem() {
+        if (brightness < MIN_BRIGHTNESS || darkClippedRatio > MAX_CLIPPED) return Problem.TOO_DARK;
+        if (brightness > MAX_BRIGHTNESS || brightClippedRatio > MAX_CLIPPED) return Problem.TOO_BRIGHT;
+        if (sharpness < MIN_SHARPNESS) return Problem.BLURRY;
+        return Problem.NONE;
+    }
+
+    public boolean isAcceptable() {
+        return getProblem() == Problem.NONE;
+    }
+
+    // For picking the best frame of a burst: an acceptable frame beats one that is not, then the sharper
+    // one wins. Anything beats null.
+    public boolean isBetterThan(FrameQuality other) {
+        if (other == null) return true;
+        if (isAcceptable() != other.isAcceptable()) return isAcceptable();
+        return sharpness > other.sharpness;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "sharpness %.0f, brightness %.0f, clipped %.1f%% black %.1f%% white",
+                sharpness, brightness, darkClippedRatio * 100, brightClippedRatio * 100);
+    }
+}
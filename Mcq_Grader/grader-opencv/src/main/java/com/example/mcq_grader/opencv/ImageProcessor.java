@@ -0,0 +1,404 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.Circle;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.Geometry;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.SheetLayout;
+import com.example.mcq_grader.core.SheetMarks;
+import org.opencv.core.*;
+import org.opencv.imgproc.Imgproc;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImageProcessor {
+
+    // Reorder 4 points to [top-left, top-right, bottom-right, bottom-left]
+    public static MatOfPoint2f reorderPoints(MatOfPoint2f points) {
+        Point[] pts = points.toArray();
+        if (pts.length != 4) return points;
+        return new MatOfPoint2f(orderCorners(pts));
+    }
+
+    private static Point[] orderCorners(Point[] pts) {
+        double[] quad = new double[8];
+        for (int i = 0; i < 4; i++) {
+            quad[i * 2] = pts[i].x;
+            quad[i * 2 + 1] = pts[i].y;
+        }
+        double[] ordered = Geometry.reorderPoints(quad);
+        return new Point[] {
+                new Point(ordered[0], ordered[1]),
+                new Point(ordered[2], ordered[3]),
+                new Point(ordered[4], ordered[5]),
+                new Point(ordered[6], ordered[7])};
+    }
+
+    // Long side of the pyramid level the sheet outline is searched on.
+    public static final int PROXY_SIZE = 800;
+
+    private static final Scalar LOWER_BLUE = new Scalar(90, 50, 50);
+    private static final Scalar UPPER_BLUE = new Scalar(130, 255, 255);
+
+    // Process the image: finds the sheet outline on a downscaled copy, refines its corners at full
+    // resolution and warps the perspective to the canonical sheet size.
+    public static Mat processImage(Mat image) {
+        // Check that the image is loaded.
+        if (image == null || image.empty()) {
+            System.out.println("Error: Input image is null or empty");
+            return image;
+        }
+        try (MatScope scope = MatScope.open("processImage")) {
+            Mat warped = scope.mat();
+            processImage(image, warped);
+            return scope.keep(warped);
+        }
+    }
+
+    // Same as processImage(Mat), writing into a caller owned Mat whose buffer is reused when it already
+    // has the canonical size. All intermediates come from the thread's MatArena. Returns false when no
+    // sheet outline is found; dst then holds a BGR copy of the image.
+    public static boolean processImage(Mat image, Mat dst) {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        try {
+            Mat bgr = toBgr(image, arena);
+            MatOfPoint2f corners = arena.points();
+            if (!findSheetCorners(bgr, corners)) {
+                bgr.copyTo(dst);
+                return false;
+            }
+            warpSheet(bgr, corners, dst);
+            return true;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    // Warps the quadrilateral with the given ordered corners to the canonical sheet size.
+    public static void warpSheet(Mat image, MatOfPoint2f corners, Mat dst) {
+        warpSheet(image, corners, null, dst);
+    }
+
+    // Warps the sheet of an image that is not upright yet. orientation maps the image's pixels to the
+    // upright image (see Geometry.orientationMatrix) and is composed into the perspective transform,
+    // so the pixels are resampled once, straight from the image as stored. A null orientation means upright.
+    public static void warpSheet(Mat image, MatOfPoint2f corners, double[] orientation, Mat dst) {
+        try (MatScope scope = MatScope.open("warpSheet")) {
+            Mat matrix = scope.track(sheetTransform(corners.toArray(), orientation));
+            Imgproc.warpPerspective(image, dst, matrix,
+                    new Size(SheetLayout.CANONICAL_WIDTH, SheetLayout.CANONICAL_HEIGHT));
+        }
+    }
+
+    // Warps the sheet of a frame, with its corners as 8 doubles (see Geometry), and returns the inverse
+    // transform as a 3x3 homography, to map points of the canonical sheet back into the frame.
+    public static double[] warpSheet(Mat image, double[] quad, Mat dst) {
+        Point[] corners = new Point[4];
+        for (int i = 0; i < 4; i++) {
+            corners[i] = new Point(quad[i * 2], quad[i * 2 + 1]);
+        }
+        try (MatScope scope = MatScope.open("warpSheet")) {
+            Mat matrix = scope.track(sheetTransform(corners, null));
+            Imgproc.warpPerspective(image, dst, matrix,
+                    new Size(SheetLayout.CANONICAL_WIDTH, SheetLayout.CANONICAL_HEIGHT));
+            Mat inverse = scope.mat();
+            Core.invert(matrix, inverse);
+            double[] m = new double[9];
+            inverse.get(0, 0, m);
+            return m;
+        }
+    }
+
+    // Perspective transform from image pixels to the canonical sheet. Corners are ordered in the
+    // upright frame, so top-left is the top-left of the sheet as the user sees it.
+    private static Mat sheetTransform(Point[] corners, double[] orientation) {
+        double[] quad = new double[8];
+        for (int i = 0; i < 4; i++) {
+            quad[i * 2] = corners[i].x;
+            quad[i * 2 + 1] = corners[i].y;
+        }
+        if (orientation != null) {
+            quad = Geometry.transform(orientation, quad);
+        }
+        double[] ordered = Geometry.reorderPoints(quad);
+        double width = SheetLayout.CANONICAL_WIDTH, height = SheetLayout.CANONICAL_HEIGHT;
+
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        try {
+            MatOfPoint2f source = arena.points();
+            source.fromArray(
+                    new Point(ordered[0], ordered[1]),
+                    new Point(ordered[2], ordered[3]),
+                    new Point(ordered[4], ordered[5]),
+                    new Point(ordered[6], ordered[7]));
+            MatOfPoint2f target = arena.points();
+            target.fromArray(
+                    new Point(0, 0),
+                    new Point(width - 1, 0),
+                    new Point(width - 1, height - 1),
+                    new Point(0, height - 1));
+            Mat perspective = Imgproc.getPerspectiveTransform(source, target);
+            if (orientation == null) {
+                return perspective;
+            }
+            // Image -> upright, then upright -> sheet.
+            double[] p = new double[9];
+            perspective.get(0, 0, p);
+            perspective.put(0, 0, Geometry.multiply(p, orientation));
+            return perspective;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    // Ensure image is in BGR (if not already).
+    // (If the image has 4 channels, convert from RGBA to BGR.)
+    private static Mat toBgr(Mat image, MatArena arena) {
+        if (image.channels() == 4) {
+            Mat bgr = arena.mat();
+            Imgproc.cvtColor(image, bgr, Imgproc.COLOR_RGBA2BGR);
+            return bgr;
+        } else if (image.channels() == 1) {
+            Mat bgr = arena.mat();
+            Imgproc.cvtColor(image, bgr, Imgproc.COLOR_GRAY2BGR);
+            return bgr;
+        }
+        return image;
+    }
+
+    // Corners of the sheet in a BGR, RGBA or gray photo (e.g. a camera preview frame), ordered top-left,
+    // top-right, bottom-right, bottom-left, or null when no quadrilateral is found. The outline is searched
+    // on a pyrDown level of about PROXY_SIZE pixels; the corners found there are scaled back and refined
+    // with cornerSubPix on the full resolution gray image.
+    public static MatOfPoint2f findSheetCorners(Mat image) {
+        try (MatScope scope = MatScope.open("findSheetCorners")) {
+            MatOfPoint2f corners = scope.track(new MatOfPoint2f());
+            return findSheetCorners(image, corners) ? scope.keep(corners) : null;
+        }
+    }
+
+    private static boolean findSheetCorners(Mat image, MatOfPoint2f corners) {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        try {
+            Mat gray = image;
+            if (image.channels() != 1) {
+                gray = arena.mat();
+                Imgproc.cvtColor(image, gray,
+                        image.channels() == 4 ? Imgproc.COLOR_RGBA2GRAY : Imgproc.COLOR_BGR2GRAY);
+            }
+
+            int scale = 1;
+            Mat proxy = gray;
+            while (Math.max(proxy.cols(), proxy.rows()) / 2 >= PROXY_SIZE) {
+                Mat down = arena.mat();
+                Imgproc.pyrDown(proxy, down);
+                proxy = down;
+                scale *= 2;
+            }
+
+            MatOfPoint2f quad = arena.points();
+            if (!findQuad(proxy, quad)) {
+                return false;
+            }
+            Point[] pts = orderCorners(quad.toArray());
+            if (scale > 1) {
+                for (Point p : pts) {
+                    // Pixel centers of a pyrDown level sit at (2x + 0.5) on the level below.
+                    p.x = (p.x + 0.5) * scale - 0.5;
+                    p.y = (p.y + 0.5) * scale - 0.5;
+                }
+                refineCorners(gray, pts, scale, arena);
+            }
+            corners.fromArray(pts);
+            return true;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    // Largest quadrilateral outline of a gray image: blur, adaptive threshold, edges, contours, and
+    // a polygon approximation of the largest contour. Returns false if that contour is not a quad.
+    private static boolean findQuad(Mat gray, MatOfPoint2f approx) {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        List<MatOfPoint> contours = new ArrayList<>();
+        try {
+            // Apply Gaussian blur.
+            Mat blurred = arena.mat();
+            Imgproc.GaussianBlur(gray, blurred, new Size(5, 5), 0);
+
+            // Apply adaptive threshold.
+            Mat thresh = arena.mat();
+            Imgproc.adaptiveThreshold(blurred, thresh, 255, Imgproc.ADAPTIVE_THRESH_GAUSSIAN_C,
+                    Imgproc.THRESH_BINARY_INV, 11, 2);
+
+            // Detect edges.
+            Mat edges = arena.mat();
+            Imgproc.Canny(thresh, edges, 50, 150);
+
+            // Find contours.
+            Imgproc.findContours(edges, contours, arena.mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+            if (contours.isEmpty()) {
+                return false;
+            }
+
+            // Find the largest contour.
+            MatOfPoint largestContour = contours.get(0);
+            double largestArea = Imgproc.contourArea(largestContour);
+            for (MatOfPoint cnt : contours) {
+                double area = Imgproc.contourArea(cnt);
+                if (area > largestArea) {
+                    largestContour = cnt;
+                    largestArea = area;
+                }
+            }
+
+            MatOfPoint2f contour2f = arena.points();
+            largestContour.convertTo(contour2f, CvType.CV_32F);
+            double perimeter = Imgproc.arcLength(contour2f, true);
+            Imgproc.approxPolyDP(contour2f, approx, 0.02 * perimeter, true);
+
+            // Only a quadrilateral can be warped.
+            return approx.total() == 4;
+        } finally {
+            releaseAll(contours);
+            arena.release(mark);
+        }
+    }
+
+    // Moves corners scaled up from a pyramid level onto the exact corner at full resolution. A
+    // corner that moves further than the search window is kept where it was.
+    private static void refineCorners(Mat gray, Point[] corners, int scale, MatArena arena) {
+        MatOfPoint2f refined = arena.points();
+        refined.fromArray(corners);
+        int half = 6 * scale;
+        Imgproc.cornerSubPix(gray, refined, new Size(half, half), new Size(-1, -1),
+                new TermCriteria(TermCriteria.EPS + TermCriteria.COUNT, 20, 0.1));
+        Point[] pts = refined.toArray();
+        for (int i = 0; i < corners.length; i++) {
+            if (Math.hypot(pts[i].x - corners[i].x, pts[i].y - corners[i].y) <= half) {
+                corners[i] = pts[i];
+            }
+        }
+    }
+
+    private static void releaseAll(List<MatOfPoint> contours) {
+        for (MatOfPoint cnt : contours) {
+            cnt.release();
+        }
+    }
+
+    // Detect filled circles in the image using HSV-based blue mask.
+    // Returns a list of center points of detected circles.
+    public static List<Point> detectFilledCircles(Mat image) {
+        List<Point> centers = new ArrayList<>();
+        for (Circle c : detectFilledBubbles(image)) {
+            centers.add(new Point(c.x, c.y));
+        }
+        return centers;
+    }
+
+    // Same detection as detectFilledCircles, keeping the enclosing radius of every bubble.
+    public static List<Circle> detectFilledBubbles(Mat image) {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        List<MatOfPoint> contours = new ArrayList<>();
+        try {
+            Mat hsv = arena.mat();
+            Imgproc.cvtColor(image, hsv, Imgproc.COLOR_BGR2HSV);
+
+            Mat mask = arena.mat();
+            Core.inRange(hsv, LOWER_BLUE, UPPER_BLUE, mask);
+
+            Imgproc.findContours(mask, contours, arena.mat(), Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+            List<Circle> filledCircles = new ArrayList<>();
+            MatOfPoint2f points = arena.points();
+            Point center = new Point();
+            float[] radius = new float[1];
+            for (MatOfPoint cnt : contours) {
+                double area = Imgproc.contourArea(cnt);
+                if (area > 200 && area < 5000) {
+                    cnt.convertTo(points, CvType.CV_32F);
+                    Imgproc.minEnclosingCircle(points, center, radius);
+                    filledCircles.add(new Circle((float) center.x, (float) center.y, radius[0]));
+                }
+            }
+            return filledCircles;
+        } finally {
+            releaseAll(contours);
+            arena.release(mark);
+        }
+    }
+
+    // Draw detected circles on the image for visualization (draws circles with fixed radius 20).
+    public static Mat drawDetectedCircles(Mat image) {
+        return drawDetectedCircles(image, detectFilledBubbles(image));
+    }
+
+    // Draw already detected circles, so callers that keep the detection result don't run it twice.
+    public static Mat drawDetectedCircles(Mat image, List<Circle> circles) {
+        try (MatScope scope = MatScope.open("draw")) {
+            Mat output = scope.track(image.clone());
+            for (Circle c : circles) {
+                Imgproc.circle(output, new Point(c.x, c.y), 20, new Scalar(0, 255, 0), 2);
+            }
+            return scope.keep(output);
+        }
+    }
+
+    // Draw the marks read through a layout: circles around every marked bubble, like drawDetectedCircles.
+    public static Mat drawMarks(Mat image, SheetMarks marks) {
+        try (MatScope scope = MatScope.open("draw")) {
+            Mat output = scope.track(image.clone());
+            CompiledLayout layout = marks.getLayout();
+            long[] marked = marks.getMarkedOptions();
+            for (int q = 0; q < marked.length; q++) {
+                for (int o = 0; o < layout.getOptionCount(); o++) {
+                    if ((marked[q] & (1L << o)) == 0) continue;
+                    int cell = q * layout.getOptionCount() + o;
+                    Imgproc.circle(output, new Point(layout.getCenterX(cell), layout.getCenterY(cell)), 20,
+                            new Scalar(0, 255, 0), 2);
+                }
+            }
+            return scope.keep(output);
+        }
+    }
+
+    // Draw a grading result. This method draws key bubbles in green outlines, student marks on key
+    // options filled in green, and marks on other options or off the bubbles filled in red.
+    public static Mat compareCircles(GradeResult result, Mat image) {
+        try (MatScope scope = MatScope.open("draw")) {
+            Mat gradedImage = scope.track(image.clone());
+            drawGrade(result, gradedImage);
+            return scope.keep(gradedImage);
+        }
+    }
+
+    private static void drawGrade(GradeResult result, Mat gradedImage) {
+        AnswerKey key = result.getKey();
+        Scalar green = new Scalar(0, 255, 0);
+        Scalar red = new Scalar(0, 0, 255);
+        for (int q = 0; q < key.getQuestionCount(); q++) {
+            for (int o = 0; o < key.getOptionCount(); o++) {
+                boolean expected = key.isSelected(q, o);
+                boolean marked = result.isMarked(q, o);
+                if (!expected && !marked) continue;
+                Point center = new Point(key.getCenterX(q, o), key.getCenterY(q, o));
+                if (expected) {
+                    Imgproc.circle(gradedImage, center, 20, green, 3);
+                }
+                if (marked) {
+                    Imgproc.circle(gradedImage, center, 20, expected ? green : red, -1);
+                }
+            }
+        }
+        for (Circle s : result.getStrayMarks()) {
+            Imgproc.circle(gradedImage, new Point(s.x, s.y), 20, red, -1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.mcq_grader.opencv;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-thread pool of scratch Mats for the image pipeline. Scratch Mats are handed out in order and
+// given back all at once by releasing to a mark, stack style, so nested stages can each take their own:
+//
+//   MatArena arena = MatArena.get();
+//   int mark = arena.mark();
+//   try {
+//       Mat gray = arena.mat();
+//       Imgproc.cvtColor(image, gray, Imgproc.COLOR_BGR2GRAY);
+//       ...
+//   } finally {
+//       arena.release(mark);
+//   }
+//
+// The Mats themselves are kept: OpenCV reuses the buffer of an output Mat that already has the right size
+// and type, so once a thread has processed one sheet, the next sheet of the same size needs no new
+// image buffers. Nothing taken from the arena may outlive its scope or be released by the caller.
+public final class MatArena {
+    private static final ThreadLocal<MatArena> ARENA = ThreadLocal.withInitial(MatArena::new);
+
+    private final List<Mat> mats = new ArrayList<>();
+    private final List<MatOfPoint2f> points = new ArrayList<>();
+    private int nextMat;
+    private int nextPoints;
+
+    private MatArena() {}
+
+    public static MatArena get() {
+        return ARENA.get();
+    }
+
+    // Current position, to give back everything taken after it with release(mark).
+    public int mark() {
+        return nextMat << 16 | nextPoints;
+    }
+
+    public void release(int mark) {
+        nextMat = mark >>> 16;
+        nextPoints = mark & 0xFFFF;
+    }
+
+    public Mat mat() {
+        if (nextMat == mats.size()) {
+            mats.add(new Mat());
+        }
+        return mats.get(nextMat++);
+    }
+
+    public MatOfPoint2f points() {
+        if (nextPoints == points.size()) {
+            points.add(new MatOfPoint2f());
+        }
+        return points.get(nextPoints++);
+    }
+
+    // Frees the native buffers of this thread's scratch Mats, e.g. when the app is asked to trim memory.
+    // Must not be called while a scope is open.
+    public void clear() {
+        for (Mat mat : mats) {
+            mat.release();
+        }
+        for (MatOfPoint2f p : points) {
+            p.release();
+        }
+        mats.clear();
+        points.clear();
+        nextMat = 0;
+        nextPoints = 0;
+    }
+
+    // Total size of the native buffers held, in bytes.
+    public long byteCount() {
+        long bytes = 0;
+        for (Mat mat : mats) {
+            bytes += mat.total() * mat.elemSize();
+        }
+        for (MatOfPoint2f p : points) {
+            bytes += p.total() * p.elemSize();
+        }
+        return bytes;
+    }
+}
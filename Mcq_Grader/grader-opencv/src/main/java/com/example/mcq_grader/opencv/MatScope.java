@@ -0,0 +1,68 @@
+package com.example.mcq_grader.opencv;
+
+import org.opencv.core.Mat;
+import java.util.ArrayList;
+import java.util.List;
+
+// Owns the Mats created in a block of code and releases them all when closed, instead of leaving
+// their native buffers to Mat.finalize() whenever the GC gets to them:
+//
+//   try (MatScope scope = MatScope.open("warp")) {
+//       Mat matrix = scope.track(Imgproc.getPerspectiveTransform(src, dst));
+//       Mat out = scope.mat();
+//       ...
+//       return scope.keep(out);
+//   }
+//
+// keep() takes a Mat back out of the scope; the caller owns it from then on. With MatTracker enabled,
+// every Mat a scope creates or tracks is counted under the scope's current stage. Scratch Mats that are
+// reused from sheet to sheet belong in MatArena instead. A scope is used by one thread.
+public final class MatScope implements AutoCloseable {
+    private final List<Mat> owned = new ArrayList<>();
+    private String stage;
+
+    private MatScope(String stage) {
+        this.stage = stage;
+    }
+
+    public static MatScope open(String stage) {
+        return new MatScope(stage);
+    }
+
+    // Stage the Mats tracked from now on are counted under, for scopes that span several stages.
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public Mat mat() {
+        return track(new Mat());
+    }
+
+    // Takes ownership of a Mat, e.g. one returned by an OpenCV call. Null is passed through.
+    public <T extends Mat> T track(T mat) {
+        if (mat != null) {
+            owned.add(mat);
+            MatTracker.track(mat, stage);
+        }
+        return mat;
+    }
+
+    // Hands a Mat out of the scope: it is no longer released on close.
+    public <T extends Mat> T keep(T mat) {
+        for (int i = owned.size() - 1; i >= 0; i--) {
+            if (owned.get(i) == mat) {
+                owned.remove(i);
+                break;
+            }
+        }
+        return mat;
+    }
+
+    @Override
+    public void close() {
+        for (Mat mat : owned) {
+            mat.release();
+        }
+        owned.clear();
+    }
+}
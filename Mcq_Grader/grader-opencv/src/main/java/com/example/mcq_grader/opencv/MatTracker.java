@@ -0,0 +1,105 @@
+package com.example.mcq_grader.opencv;
+
+import org.opencv.core.Mat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Debug instrumentation for native Mat memory. While enabled, every Mat that goes through a MatScope is
+// remembered with the stage it was made in until it is released. checkpoint(), e.g. after each graded
+// sheet, reports the Mats that still hold a buffer: anything there that has no long-lived owner is a
+// leak. Tracked Mats are held strongly, so a leak is reported rather than hidden by the GC finalizing it.
+// Mats handed to a long-lived owner such as a cache are taken off the books with untrack().
+// Disabled, tracking is a single volatile read.
+public final class MatTracker {
+    private static final Map<Mat, String> LIVE = new IdentityHashMap<>();
+    private static volatile boolean enabled;
+
+    private MatTracker() {}
+
+    public static void setEnabled(boolean enabled) {
+        MatTracker.enabled = enabled;
+        if (!enabled) {
+            synchronized (LIVE) {
+                LIVE.clear();
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static <T extends Mat> T track(T mat, String stage) {
+        if (enabled) {
+            synchronized (LIVE) {
+                LIVE.put(mat, stage);
+            }
+        }
+        return mat;
+    }
+
+    public static void untrack(Mat mat) {
+        if (enabled) {
+            synchronized (LIVE) {
+                LIVE.remove(mat);
+            }
+        }
+    }
+
+    // Forgets the Mats released since the last checkpoint and reports the ones still holding a buffer.
+    public static Report checkpoint() {
+        Report report = new Report();
+        synchronized (LIVE) {
+            Iterator<Map.Entry<Mat, String>> it = LIVE.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Mat, String> entry = it.next();
+                Mat mat = entry.getKey();
+                if (mat.empty()) {
+                    it.remove();
+                } else {
+                    report.add(entry.getValue(), mat.total() * mat.elemSize());
+                }
+            }
+        }
+        return report;
+    }
+
+    // Live Mats and their bytes per stage.
+    public static final class Report {
+        private final Map<String, long[]> stages = new TreeMap<>();
+
+        private void add(String stage, long bytes) {
+            long[] counts = stages.computeIfAbsent(String.valueOf(stage), s -> new long[2]);
+            counts[0]++;
+            counts[1] += bytes;
+        }
+
+        public boolean isEmpty() {
+            return stages.isEmpty();
+        }
+
+        public int getCount(String stage) {
+            long[] counts = stages.get(stage);
+            return counts != null ? (int) counts[0] : 0;
+        }
+
+        public long getBytes(String stage) {
+            long[] counts = stages.get(stage);
+            return counts != null ? counts[1] : 0;
+        }
+
+        @Override
+        public String toString() {
+            if (stages.isEmpty()) return "no live Mats";
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, long[]> e : stages.entrySet()) {
+                if (sb.length() > 0) sb.append(", ");
+                sb.append(e.getKey()).append(": ").append(e.getValue()[0]).append(" Mats, ")
+                        .append(e.getValue()[1] / 1024).append(" KB");
+            }
+            return sb.toString();
+        }
+    }
+}
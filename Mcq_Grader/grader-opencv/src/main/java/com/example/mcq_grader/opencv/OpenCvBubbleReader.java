@@ -0,0 +1,15 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.BubbleReader;
+import com.example.mcq_grader.core.Circle;
+import org.opencv.core.Mat;
+import java.util.List;
+
+// BubbleReader backed by the HSV blue-ink detection of ImageProcessor.
+public class OpenCvBubbleReader implements BubbleReader<Mat> {
+
+    @Override
+    public List<Circle> readMarks(Mat sheet) {
+        return ImageProcessor.detectFilledBubbles(sheet);
+    }
+}
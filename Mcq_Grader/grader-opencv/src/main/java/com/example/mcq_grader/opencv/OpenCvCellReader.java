@@ -0,0 +1,79 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.CellReader;
+import com.example.mcq_grader.core.CompiledLayout;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+// CellReader for warped sheet Mats. The sheet is binarized to 0/1 ink pixels and summed once into an
+// integral image; the ink count of any cell is then four reads of that table, whatever the cell size.
+// Works on darkness, so pencil and black ink read like blue ink.
+//
+// The integral table is copied into a buffer that is reused between sheets, so use one reader per thread.
+public class OpenCvCellReader implements CellReader<Mat> {
+    // Local threshold offset: how much darker than its surroundings a pixel must be to count as ink.
+    private static final double INK_OFFSET = 15;
+
+    private int[] sums = new int[0];
+
+    @Override
+    public float[] readCells(Mat sheet, CompiledLayout layout) {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        int stride;
+        int rows;
+        try {
+            Mat binary = binarize(sheet, layout.getRadius(), arena);
+            Mat integral = arena.mat();
+            Imgproc.integral(binary, integral, CvType.CV_32S);
+
+            // The integral image has one more row and column than the sheet: sums[y * stride + x] is
+            // the ink count of the rectangle [0, x) x [0, y).
+            stride = integral.cols();
+            rows = integral.rows();
+            if (sums.length < stride * rows) {
+                sums = new int[stride * rows];
+            }
+            integral.get(0, 0, sums);
+        } finally {
+            arena.release(mark);
+        }
+
+        int[] rois = layout.getRois();
+        float[] fill = new float[layout.getCellCount()];
+        for (int cell = 0; cell < fill.length; cell++) {
+            int x0 = clamp(rois[cell * 4], stride - 1);
+            int y0 = clamp(rois[cell * 4 + 1], rows - 1);
+            int x1 = clamp(rois[cell * 4] + rois[cell * 4 + 2], stride - 1);
+            int y1 = clamp(rois[cell * 4 + 1] + rois[cell * 4 + 3], rows - 1);
+            int area = (x1 - x0) * (y1 - y0);
+            if (area <= 0) continue;
+            int ink = sums[y1 * stride + x1] - sums[y0 * stride + x1]
+                    - sums[y1 * stride + x0] + sums[y0 * stride + x0];
+            fill[cell] = ink / (float) area;
+        }
+        return fill;
+    }
+
+    // Ink is 1 and paper 0 in the result. The threshold window spans a few bubbles, so the inside of
+    // a filled bubble is still compared against the paper around it.
+    static Mat binarize(Mat sheet, float radius, MatArena arena) {
+        Mat gray = arena.mat();
+        if (sheet.channels() == 4) {
+            Imgproc.cvtColor(sheet, gray, Imgproc.COLOR_RGBA2GRAY);
+        } else if (sheet.channels() == 3) {
+            Imgproc.cvtColor(sheet, gray, Imgproc.COLOR_BGR2GRAY);
+        } else {
+            sheet.copyTo(gray);
+        }
+        int blockSize = Math.max(3, (int) (radius * 4)) | 1;
+        Imgproc.adaptiveThreshold(gray, gray, 1, Imgproc.ADAPTIVE_THRESH_MEAN_C,
+                Imgproc.THRESH_BINARY_INV, blockSize, INK_OFFSET);
+        return gray;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.Grader;
+import com.example.mcq_grader.core.GridBubbleMatcher;
+import com.example.mcq_grader.core.LayoutGrader;
+import org.opencv.core.Mat;
+
+// Grader wired with the OpenCV detector and reader; usable on Android and on a plain JVM
+// as long as the OpenCV native library is loaded.
+public final class OpenCvGrader {
+    // Maximum distance between a student mark and a key bubble center, in warped sheet pixels.
+    public static final float MATCH_THRESHOLD = 25;
+
+    private static final ThreadLocal<LayoutGrader<Mat>> LAYOUT_GRADER =
+            ThreadLocal.withInitial(OpenCvGrader::createLayoutGrader);
+
+    private OpenCvGrader() {}
+
+    public static Grader<Mat> create() {
+        return new Grader<>(new OpenCvSheetDetector(), new OpenCvBubbleReader(),
+                new GridBubbleMatcher(MATCH_THRESHOLD));
+    }
+
+    // Reads bubbles through a compiled layout instead of searching the sheet for contours.
+    public static LayoutGrader<Mat> createLayoutGrader() {
+        return new LayoutGrader<>(new OpenCvSheetDetector(), new OpenCvCellReader(),
+                LayoutGrader.DEFAULT_FILL_THRESHOLD);
+    }
+
+    // The calling thread's layout grader, created on first use. Its warp and integral buffers are reused
+    // by every sheet read on the thread, so a worker grading sheet after sheet allocates them once.
+    public static LayoutGrader<Mat> threadLayoutGrader() {
+        return LAYOUT_GRADER.get();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.SheetDetector;
+import org.opencv.core.Mat;
+
+// SheetDetector backed by ImageProcessor.processImage: finds the sheet quadrilateral and warps it.
+// Every sheet is warped into the same buffer, so a detected sheet is only valid until the next
+// detectSheet call and a detector must not be shared between threads.
+public class OpenCvSheetDetector implements SheetDetector<Mat> {
+    private final Mat warped = new Mat();
+
+    @Override
+    public Mat detectSheet(Mat image) {
+        ImageProcessor.processImage(image, warped);
+        return warped;
+    }
+
+    @Override
+    public void release(Mat image) {
+        // The warp buffer is kept for the next sheet.
+    }
+}
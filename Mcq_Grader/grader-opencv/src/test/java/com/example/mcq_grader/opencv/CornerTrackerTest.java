@@ -0,0 +1,78 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import com.example.mcq_grader.opencv.testing.SyntheticSheet;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.Assert.*;
+
+public class CornerTrackerTest {
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // The photo moved by (dx, dy), as a gray preview frame.
+    private static Mat frame(Mat photo, double dx, double dy) {
+        Mat shift = new Mat(2, 3, CvType.CV_64F);
+        shift.put(0, 0, 1, 0, dx, 0, 1, dy);
+        Mat moved = new Mat();
+        Imgproc.warpAffine(photo, moved, shift, photo.size(), Imgproc.INTER_LINEAR, Core.BORDER_REPLICATE);
+        Mat gray = new Mat();
+        Imgproc.cvtColor(moved, gray, Imgproc.COLOR_BGR2GRAY);
+        shift.release();
+        moved.release();
+        return gray;
+    }
+
+    @Test
+    public void update_followsAMovingSheetWithOneDetection() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(720, 1280).skew(0.03).noise(2)).generate(4);
+        CornerTracker tracker = new CornerTracker();
+
+        double[] first = null, corners = null;
+        int frames = 20;
+        for (int f = 0; f < frames; f++) {
+            Mat gray = frame(sheet.getImage(), 1.5 * f, -f);
+            corners = tracker.update(gray);
+            gray.release();
+            assertNotNull("frame " + f, corners);
+            if (f == 0) first = corners;
+        }
+
+        // Where the detector put the corners on the first frame, moved with the sheet.
+        assertEquals(1, tracker.getDetectionCount());
+        double dx = 1.5 * (frames - 1), dy = -(frames - 1);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("corner " + i + " x", first[i * 2] + dx, corners[i * 2], 1);
+            assertEquals("corner " + i + " y", first[i * 2 + 1] + dy, corners[i * 2 + 1], 1);
+        }
+        tracker.release();
+        sheet.release();
+    }
+
+    @Test
+    public void update_detectsAgainWhenTheSheetIsLost() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(720, 1280).skew(0.03)).generate(6);
+        Mat desk = new Mat(1280, 720, CvType.CV_8UC1, new Scalar(40));
+        CornerTracker tracker = new CornerTracker();
+        Mat gray = frame(sheet.getImage(), 0, 0);
+
+        assertNotNull(tracker.update(gray));
+        assertNull(tracker.update(desk));
+        assertNotNull(tracker.update(gray));
+        assertEquals(3, tracker.getDetectionCount());
+        gray.release();
+        desk.release();
+        tracker.release();
+        sheet.release();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import com.example.mcq_grader.opencv.testing.SyntheticSheet;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import static org.junit.Assert.*;
+
+public class FrameQualityTest {
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    @Test
+    public void measure_acceptsASharpSheetAndRejectsABlurredOne() {
+        SyntheticSheet sharp = new SheetGenerator(new SheetSpec().size(1200, 1600).skew(0.03).noise(2)).generate(3);
+        SyntheticSheet blurred = new SheetGenerator(new SheetSpec().size(1200, 1600).skew(0.03).noise(2).blur(8)).generate(3);
+
+        FrameQuality good = FrameQuality.measure(sharp.getImage());
+        FrameQuality bad = FrameQuality.measure(blurred.getImage());
+        assertEquals(good.toString(), FrameQuality.Problem.NONE, good.getProblem());
+        assertEquals(bad.toString(), FrameQuality.Problem.BLURRY, bad.getProblem());
+        assertTrue(good.isBetterThan(bad));
+        assertFalse(bad.isBetterThan(good));
+
+        sharp.release();
+        blurred.release();
+    }
+
+    @Test
+    public void measure_rejectsDarkAndBlownOutFrames() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(1200, 1600).skew(0.03).noise(2)).generate(3);
+        Mat dark = new Mat();
+        sheet.getImage().convertTo(dark, -1, 0.2, 0);
+        Mat blownOut = new Mat();
+        sheet.getImage().convertTo(blownOut, -1, 1.6, 40);
+
+        assertEquals(FrameQuality.Problem.TOO_DARK, FrameQuality.measure(dark).getProblem());
+        FrameQuality bright = FrameQuality.measure(blownOut);
+        assertEquals(bright.toString(), FrameQuality.Problem.TOO_BRIGHT, bright.getProblem());
+        assertTrue(bright.getBrightClippedRatio() > 0.2);
+
+        dark.release();
+        blownOut.release();
+        sheet.release();
+    }
+
+    @Test
+    public void measure_reportsAShadowAsTooDark() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(1200, 1600).skew(0.03).noise(2)).generate(3);
+        Mat shadowed = sheet.getImage().clone();
+        // Black over the left third: the mean stays well lit, the shadow clips to black.
+        shadowed.colRange(0, 400).setTo(new Scalar(0, 0, 0));
+
+        FrameQuality quality = FrameQuality.measure(shadowed);
+        assertEquals(quality.toString(), FrameQuality.Problem.TOO_DARK, quality.getProblem());
+        assertTrue(quality.getBrightness() > 40);
+        assertTrue(quality.getDarkClippedRatio() > 0.2);
+        assertEquals(0, quality.getBrightClippedRatio(), 0.05);
+
+        shadowed.release();
+        sheet.release();
+    }
+
+    @Test
+    public void measure_givesTheSameSharpnessAtAnyResolutionAndForGrayFrames() {
+        SyntheticSheet photo = new SheetGenerator(new SheetSpec().size(3000, 4000).skew(0.03).noise(2)).generate(3);
+        SyntheticSheet preview = new SheetGenerator(new SheetSpec().size(1200, 1600).skew(0.03).noise(2)).generate(3);
+        Mat gray = new Mat();
+        Imgproc.cvtColor(preview.getImage(), gray, Imgproc.COLOR_BGR2GRAY);
+
+        double full = FrameQuality.measure(photo.getImage()).getSharpness();
+        double small = FrameQuality.measure(preview.getImage()).getSharpness();
+        assertEquals(full, small, full * 0.2);
+        assertEquals(small, FrameQuality.measure(gray).getSharpness(), small * 0.05);
+
+        gray.release();
+        photo.release();
+        preview.release();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.Circle;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.Geometry;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.SheetLayout;
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import com.example.mcq_grader.opencv.testing.SyntheticSheet;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// Runs the OpenCV adapter off-device against the desktop OpenCV build.
+public class ImageProcessorTest {
+    private static final Scalar BLUE_INK = new Scalar(200, 60, 20); // BGR
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // A white sheet with two blue bubbles, photographed on a dark desk.
+    private static Mat photo() {
+        Mat photo = new Mat(900, 1000, CvType.CV_8UC3, new Scalar(40, 40, 40));
+        MatOfPoint sheet = new MatOfPoint(
+                new Point(120, 60), new Point(880, 90), new Point(860, 850), new Point(100, 820));
+        Imgproc.fillPoly(photo, Collections.singletonList(sheet), new Scalar(255, 255, 255));
+        Imgproc.circle(photo, new Point(300, 300), 18, BLUE_INK, -1);
+        Imgproc.circle(photo, new Point(600, 500), 18, BLUE_INK, -1);
+        return photo;
+    }
+
+    @Test
+    public void processImage_warpsSheetToCanonicalSize() {
+        Mat photo = photo();
+        Mat warped = ImageProcessor.processImage(photo);
+
+        assertEquals(700, warped.cols());
+        assertEquals(800, warped.rows());
+        photo.release();
+        warped.release();
+    }
+
+    @Test
+    public void findSheetCorners_onA12MpPhotoLandsOnTheTrueCorners() {
+        SheetSpec spec = new SheetSpec().size(4000, 3000).skew(0.04).blur(1.5).noise(4);
+        SyntheticSheet sheet = new SheetGenerator(spec).generate(11);
+
+        MatOfPoint2f corners = ImageProcessor.findSheetCorners(sheet.getImage());
+
+        assertNotNull(corners);
+        Point[] found = corners.toArray();
+        // Ground truth is the center of the corner pixels of the 700x800 sheet, which is up to one
+        // sheet pixel (about 3.4 photo pixels here) inside the paper corner.
+        double[] expected = sheet.getCorners();
+        for (int i = 0; i < 4; i++) {
+            assertEquals("corner " + i + " x", expected[i * 2], found[i].x, 5);
+            assertEquals("corner " + i + " y", expected[i * 2 + 1], found[i].y, 5);
+        }
+        corners.release();
+        sheet.release();
+    }
+
+    @Test
+    public void findSheetCorners_onAGrayPreviewFrameMatchesTheColorPhoto() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(720, 1280).skew(0.03)).generate(8);
+        Mat gray = new Mat();
+        Imgproc.cvtColor(sheet.getImage(), gray, Imgproc.COLOR_BGR2GRAY);
+
+        MatOfPoint2f fromColor = ImageProcessor.findSheetCorners(sheet.getImage());
+        MatOfPoint2f fromGray = ImageProcessor.findSheetCorners(gray);
+
+        assertNotNull(fromGray);
+        assertArrayEquals(fromColor.toArray(), fromGray.toArray());
+        fromColor.release();
+        fromGray.release();
+        gray.release();
+        sheet.release();
+    }
+
+    @Test
+    public void warpSheet_withOrientationMatchesWarpOfTheUprightPhoto() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(1200, 1000).skew(0.03)).generate(5);
+        Mat upright = sheet.getImage();
+        // Stored the way a sideways camera would: the upright photo turned a quarter turn anticlockwise
+        // and mirrored, so flipping and then rotating it clockwise brings it back.
+        Mat stored = new Mat();
+        Core.rotate(upright, stored, Core.ROTATE_90_COUNTERCLOCKWISE);
+        Core.flip(stored, stored, 1);
+
+        MatOfPoint2f uprightCorners = ImageProcessor.findSheetCorners(upright);
+        MatOfPoint2f storedCorners = ImageProcessor.findSheetCorners(stored);
+        Mat expected = new Mat();
+        ImageProcessor.warpSheet(upright, uprightCorners, expected);
+        Mat actual = new Mat();
+        double[] orientation = Geometry.orientationMatrix(90, true, stored.cols(), stored.rows());
+        ImageProcessor.warpSheet(stored, storedCorners, orientation, actual);
+
+        Mat diff = new Mat();
+        Core.absdiff(expected, actual, diff);
+        double meanDiff = Core.mean(diff).val[0];
+        assertTrue("mean difference " + meanDiff, meanDiff < 1);
+        for (Mat m : new Mat[]{stored, uprightCorners, storedCorners, expected, actual, diff}) {
+            m.release();
+        }
+        sheet.release();
+    }
+
+    @Test
+    public void warpSheet_ofAFrameMapsTheSheetBackIntoIt() {
+        SheetSpec spec = new SheetSpec().size(1200, 1000).fillPattern(SheetSpec.FillPattern.MIXED).skew(0.03);
+        SheetGenerator generator = new SheetGenerator(spec);
+        SyntheticSheet sheet = generator.generate(9);
+        Mat gray = new Mat();
+        Imgproc.cvtColor(sheet.getImage(), gray, Imgproc.COLOR_BGR2GRAY);
+        Mat warped = new Mat();
+
+        double[] toFrame = ImageProcessor.warpSheet(gray, sheet.getCorners(), warped);
+
+        CompiledLayout layout = generator.getLayout().compile();
+        long[] read = OpenCvGrader.createLayoutGrader().readSheet(warped, layout).getMarkedOptions();
+        assertArrayEquals(sheet.getAnswers(), read);
+        double w = SheetLayout.CANONICAL_WIDTH - 1, h = SheetLayout.CANONICAL_HEIGHT - 1;
+        double[] corners = Geometry.transform(toFrame, new double[]{0, 0, w, 0, w, h, 0, h});
+        assertArrayEquals(sheet.getCorners(), corners, 1e-3);
+        gray.release();
+        warped.release();
+        sheet.release();
+    }
+
+    @Test
+    public void grader_readsSheetAndScoresAgainstKey() {
+        Mat photo = photo();
+        List<Circle> marks = OpenCvGrader.create().readSheet(photo);
+        AnswerKey key = AnswerKey.compile(Arrays.asList(marks.get(0)));
+
+        GradeResult result = OpenCvGrader.create().grade(photo, key);
+
+        assertEquals(2, marks.size());
+        assertEquals(1, result.getCorrectCount());
+        assertEquals(1, result.getTotal());
+        assertEquals(1, result.getStrayMarks().size());
+        photo.release();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import com.example.mcq_grader.opencv.testing.SyntheticSheet;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Mat;
+
+import static org.junit.Assert.*;
+
+public class MatArenaTest {
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    @Test
+    public void release_handsOutTheSameMatsAgain() {
+        MatArena arena = MatArena.get();
+        int mark = arena.mark();
+        Mat first = arena.mat();
+        int inner = arena.mark();
+        Mat second = arena.mat();
+        arena.release(inner);
+
+        assertSame(second, arena.mat());
+        arena.release(mark);
+        assertSame(first, arena.mat());
+        assertSame(second, arena.mat());
+        arena.release(mark);
+    }
+
+    @Test
+    public void batchGrading_reusesEveryImageBuffer() {
+        SheetGenerator generator = new SheetGenerator(new SheetSpec().size(3264, 2448).skew(0.03));
+        SyntheticSheet a = generator.generate(1);
+        SyntheticSheet b = generator.generate(2);
+        CompiledLayout layout = generator.getLayout().compile();
+        OpenCvCellReader reader = new OpenCvCellReader();
+        Mat warped = new Mat();
+        MatArena arena = MatArena.get();
+
+        assertTrue(ImageProcessor.processImage(a.getImage(), warped));
+        reader.readCells(warped, layout);
+        long warpedData = warped.dataAddr();
+        long scratchBytes = arena.byteCount();
+
+        assertTrue(ImageProcessor.processImage(b.getImage(), warped));
+        reader.readCells(warped, layout);
+
+        assertEquals(warpedData, warped.dataAddr());
+        assertEquals(scratchBytes, arena.byteCount());
+        warped.release();
+        a.release();
+        b.release();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import com.example.mcq_grader.opencv.testing.SyntheticSheet;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+
+import static org.junit.Assert.*;
+
+public class MatScopeTest {
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    @After
+    public void disableTracker() {
+        MatTracker.setEnabled(false);
+    }
+
+    @Test
+    public void close_releasesEverythingButTheKeptMats() {
+        Mat scratch, tracked, kept;
+        try (MatScope scope = MatScope.open("test")) {
+            scratch = scope.mat();
+            scratch.create(10, 10, CvType.CV_8UC1);
+            tracked = scope.track(new Mat(10, 10, CvType.CV_8UC1));
+            kept = scope.keep(scope.track(new Mat(10, 10, CvType.CV_8UC1)));
+        }
+
+        assertTrue(scratch.empty());
+        assertTrue(tracked.empty());
+        assertFalse(kept.empty());
+        kept.release();
+    }
+
+    @Test
+    public void checkpoint_reportsMatsStillLivePerStage() {
+        MatTracker.setEnabled(true);
+        MatTracker.checkpoint();
+        Mat leaked;
+        try (MatScope scope = MatScope.open("detect")) {
+            scope.mat().create(100, 100, CvType.CV_8UC1);
+            scope.setStage("warp");
+            leaked = scope.keep(scope.track(new Mat(100, 100, CvType.CV_8UC3)));
+        }
+
+        MatTracker.Report report = MatTracker.checkpoint();
+        assertEquals(0, report.getCount("detect"));
+        assertEquals(1, report.getCount("warp"));
+        assertEquals(100 * 100 * 3, report.getBytes("warp"));
+
+        leaked.release();
+        assertTrue(MatTracker.checkpoint().isEmpty());
+    }
+
+    @Test
+    public void processingASheet_leavesOnlyTheReturnedMats() {
+        SyntheticSheet sheet = new SheetGenerator(new SheetSpec().size(1600, 1200).skew(0.03)).generate(3);
+        MatTracker.setEnabled(true);
+        MatTracker.checkpoint();
+
+        Mat warped = ImageProcessor.processImage(sheet.getImage());
+        MatOfPoint2f corners = ImageProcessor.findSheetCorners(sheet.getImage());
+        Mat drawn = ImageProcessor.drawDetectedCircles(warped);
+        MatTracker.Report report = MatTracker.checkpoint();
+        assertEquals(1, report.getCount("processImage"));
+        assertEquals(1, report.getCount("findSheetCorners"));
+        assertEquals(1, report.getCount("draw"));
+        assertEquals(0, report.getCount("warpSheet"));
+
+        warped.release();
+        corners.release();
+        drawn.release();
+        assertTrue(MatTracker.checkpoint().isEmpty());
+        sheet.release();
+    }
+}
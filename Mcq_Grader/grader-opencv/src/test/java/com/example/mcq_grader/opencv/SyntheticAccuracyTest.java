@@ -0,0 +1,187 @@
+package com.example.mcq_grader.opencv;
+
+import com.example.mcq_grader.core.AnswerKey;
+import com.example.mcq_grader.core.Circle;
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.GradeResult;
+import com.example.mcq_grader.core.Grader;
+import com.example.mcq_grader.core.LayoutGrader;
+import com.example.mcq_grader.opencv.testing.SheetGenerator;
+import com.example.mcq_grader.opencv.testing.SheetSpec;
+import com.example.mcq_grader.opencv.testing.SyntheticSheet;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// Grades generated sheets end to end and checks the marks read back against the ground truth.
+public class SyntheticAccuracyTest {
+    private static final int SHEETS = 12;
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    // Ground truth mark centers, in canonical sheet coordinates.
+    private static List<Circle> expectedMarks(SheetGenerator generator, long[] answers) {
+        List<Circle> marks = new ArrayList<>();
+        for (int q = 0; q < answers.length; q++) {
+            for (int o = 0; o < Long.SIZE; o++) {
+                if ((answers[q] & (1L << o)) != 0) {
+                    Point c = generator.bubbleCenter(q, o);
+                    marks.add(new Circle((float) c.x, (float) c.y, (float) generator.getBubbleRadius()));
+                }
+            }
+        }
+        return marks;
+    }
+
+    @Test
+    public void distortedSheets_areGradedAgainstTheirOwnAnswers() {
+        Grader<Mat> grader = OpenCvGrader.create();
+        for (int i = 0; i < SHEETS; i++) {
+            SheetSpec spec = new SheetSpec()
+                    .questions(20)
+                    .options(4)
+                    .fillPattern(SheetSpec.FillPattern.MIXED)
+                    .skew(0.05)
+                    .blur(1.0)
+                    .noise(5)
+                    .lightingGradient(0.3);
+            SheetGenerator generator = new SheetGenerator(spec);
+            SyntheticSheet sheet = generator.generate(1000 + i);
+            List<Circle> expected = expectedMarks(generator, sheet.getAnswers());
+
+            GradeResult result = grader.grade(sheet.getImage(), AnswerKey.compile(expected));
+
+            assertEquals("sheet " + i, result.getTotal(), result.getCorrectCount());
+            assertEquals("sheet " + i, 0, result.getStrayMarks().size());
+            sheet.release();
+        }
+    }
+
+    @Test
+    public void studentSheets_matchGroundTruthQuestionByQuestion() {
+        SheetSpec keySpec = new SheetSpec().questions(20).options(4);
+        SheetGenerator keyGenerator = new SheetGenerator(keySpec);
+        SyntheticSheet keySheet = keyGenerator.generate(7);
+        AnswerKey key = AnswerKey.compile(expectedMarks(keyGenerator, keySheet.getAnswers()));
+        keySheet.release();
+        Grader<Mat> grader = OpenCvGrader.create();
+
+        for (int i = 0; i < SHEETS; i++) {
+            SheetSpec spec = new SheetSpec()
+                    .questions(20)
+                    .options(4)
+                    .fillPattern(SheetSpec.FillPattern.MIXED)
+                    .skew(0.04)
+                    .noise(4);
+            SyntheticSheet sheet = new SheetGenerator(spec).generate(2000 + i);
+            GradeResult expected = new GradeResult(key, sheet.getAnswers(), new ArrayList<>());
+
+            GradeResult result = grader.grade(sheet.getImage(), key);
+
+            for (int q = 0; q < key.getQuestionCount(); q++) {
+                assertEquals("sheet " + i + " question " + (q + 1), expected.getStatus(q), result.getStatus(q));
+            }
+            assertEquals(expected.getCorrectCount(), result.getCorrectCount());
+            sheet.release();
+        }
+    }
+
+    @Test
+    public void layoutReading_matchesGroundTruthForEveryInk() {
+        LayoutGrader<Mat> grader = OpenCvGrader.createLayoutGrader();
+        Scalar[] inks = {SheetSpec.BLUE_INK, SheetSpec.BLACK_INK, SheetSpec.PENCIL};
+        for (int i = 0; i < SHEETS; i++) {
+            SheetSpec spec = new SheetSpec()
+                    .questions(30)
+                    .options(5)
+                    .fillPattern(SheetSpec.FillPattern.MIXED)
+                    .ink(inks[i % inks.length])
+                    .skew(0.04)
+                    .blur(1.0)
+                    .noise(4)
+                    .lightingGradient(0.3);
+            SheetGenerator generator = new SheetGenerator(spec);
+            SyntheticSheet sheet = generator.generate(3000 + i);
+
+            long[] read = grader.readAnswers(sheet.getImage(), generator.getLayout().compile());
+
+            assertArrayEquals("sheet " + i, sheet.getAnswers(), read);
+            sheet.release();
+        }
+    }
+
+    @Test
+    public void keyReading_compilesTheKeyForEveryInk() {
+        LayoutGrader<Mat> grader = OpenCvGrader.createLayoutGrader();
+        Scalar[] inks = {SheetSpec.BLUE_INK, SheetSpec.BLACK_INK, SheetSpec.PENCIL};
+        for (int k = 0; k < inks.length; k++) {
+            SheetSpec keySpec = new SheetSpec()
+                    .questions(20)
+                    .options(4)
+                    .ink(inks[k])
+                    .skew(0.04)
+                    .blur(1.0)
+                    .noise(4);
+            SheetGenerator keyGenerator = new SheetGenerator(keySpec);
+            SyntheticSheet keySheet = keyGenerator.generate(4000 + k);
+            CompiledLayout layout = keyGenerator.getLayout().compile();
+
+            AnswerKey key = grader.compileKey(grader.readMarks(keySheet.getImage(), layout));
+
+            assertEquals("key " + k, 20, key.getQuestionCount());
+            for (int q = 0; q < key.getQuestionCount(); q++) {
+                assertEquals("key " + k + " question " + (q + 1),
+                        keySheet.getAnswers()[q], key.getSelectedOptions(q));
+            }
+            keySheet.release();
+
+            // Student sheets in the same ink are graded against the key as the ground truth says.
+            for (int i = 0; i < 3; i++) {
+                SheetSpec spec = new SheetSpec()
+                        .questions(20)
+                        .options(4)
+                        .fillPattern(SheetSpec.FillPattern.MIXED)
+                        .ink(inks[k])
+                        .skew(0.04)
+                        .noise(4);
+                SyntheticSheet sheet = new SheetGenerator(spec).generate(4100 + 10 * k + i);
+                GradeResult expected = new GradeResult(key, sheet.getAnswers(), new ArrayList<>());
+
+                GradeResult result = grader.grade(sheet.getImage(), key);
+
+                for (int q = 0; q < key.getQuestionCount(); q++) {
+                    assertEquals("key " + k + " sheet " + i + " question " + (q + 1),
+                            expected.getStatus(q), result.getStatus(q));
+                }
+                sheet.release();
+            }
+        }
+    }
+
+    @Test
+    public void generate_isDeterministicForASeed() {
+        SheetSpec spec = new SheetSpec().fillPattern(SheetSpec.FillPattern.MIXED).noise(4);
+        SyntheticSheet a = new SheetGenerator(spec).generate(42);
+        SyntheticSheet b = new SheetGenerator(spec).generate(42);
+
+        assertArrayEquals(a.getAnswers(), b.getAnswers());
+        assertArrayEquals(a.getCorners(), b.getCorners(), 0);
+        Mat diff = new Mat();
+        Core.absdiff(a.getImage(), b.getImage(), diff);
+        assertEquals(0, Core.countNonZero(diff.reshape(1)));
+        diff.release();
+        a.release();
+        b.release();
+    }
+}
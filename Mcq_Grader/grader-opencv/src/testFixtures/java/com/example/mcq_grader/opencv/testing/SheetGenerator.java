@@ -0,0 +1,197 @@
+package com.example.mcq_grader.opencv.testing;
+
+import com.example.mcq_grader.core.CompiledLayout;
+import com.example.mcq_grader.core.SheetLayout;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Random;
+
+// Renders synthetic answer sheet photos with the Imgproc drawing primitives: the sheet is drawn at the
+// canonical 700x800 size used by ImageProcessor.processImage, with the bubbles of
+// SheetLayout.standard, then projected into a larger photo with
+// perspective skew, lighting gradient, blur and noise. The same spec and seed always give the same sheet.
+public class SheetGenerator {
+    public static final int SHEET_WIDTH = SheetLayout.CANONICAL_WIDTH;
+    public static final int SHEET_HEIGHT = SheetLayout.CANONICAL_HEIGHT;
+
+    private static final Scalar PAPER = new Scalar(250, 250, 250);
+    private static final Scalar OUTLINE = new Scalar(60, 60, 60);
+    private static final Scalar DESK = new Scalar(45, 40, 35);
+
+    private final SheetSpec spec;
+    private final SheetLayout layout;
+    private final CompiledLayout cells;
+    private final double radius;
+
+    public SheetGenerator(SheetSpec spec) {
+        if (spec.options < 1 || spec.options > Long.SIZE) {
+            throw new IllegalArgumentException("Options per question must be 1.." + Long.SIZE);
+        }
+        this.spec = spec;
+        layout = SheetLayout.standard(spec.questions, spec.options);
+        cells = layout.compile();
+        radius = cells.getRadius();
+    }
+
+    // The layout the sheets are drawn with, for reading them back.
+    public SheetLayout getLayout() {
+        return layout;
+    }
+
+    // Center of a bubble on the canonical sheet.
+    public Point bubbleCenter(int question, int option) {
+        int cell = question * spec.options + option;
+        return new Point(cells.getCenterX(cell), cells.getCenterY(cell));
+    }
+
+    public double getBubbleRadius() {
+        return radius;
+    }
+
+    public SyntheticSheet generate(long seed) {
+        Random random = new Random(seed);
+        long[] answers = answers(random);
+        Mat sheet = renderSheet(answers, random);
+        double[] corners = corners(random);
+        Mat photo = project(sheet, corners);
+        sheet.release();
+        applyLighting(photo, random);
+        if (spec.blur > 0) {
+            Imgproc.GaussianBlur(photo, photo, new Size(0, 0), spec.blur);
+        }
+        if (spec.noise > 0) {
+            addNoise(photo, seed);
+        }
+        return new SyntheticSheet(photo, answers, corners);
+    }
+
+    // Draws a sheet with the given answers and no distortion, already at the canonical warp size.
+    public Mat renderSheet(long[] answers, Random random) {
+        Mat sheet = new Mat(SHEET_HEIGHT, SHEET_WIDTH, CvType.CV_8UC3, PAPER);
+        for (int q = 0; q < spec.questions; q++) {
+            for (int o = 0; o < spec.options; o++) {
+                Point center = bubbleCenter(q, o);
+                Imgproc.circle(sheet, center, (int) Math.round(radius), OUTLINE, 1, Imgproc.LINE_AA);
+                if ((answers[q] & (1L << o)) != 0) {
+                    // Hand filled: a bit smaller than the bubble and slightly off center.
+                    double fill = radius * (0.8 + 0.2 * random.nextDouble());
+                    Point mark = new Point(center.x + random.nextGaussian() * 0.8,
+                            center.y + random.nextGaussian() * 0.8);
+                    Imgproc.circle(sheet, mark, (int) Math.round(fill), spec.ink, -1, Imgproc.LINE_AA);
+                }
+            }
+        }
+        return sheet;
+    }
+
+    private long[] answers(Random random) {
+        long[] answers = new long[spec.questions];
+        for (int q = 0; q < answers.length; q++) {
+            long single = 1L << random.nextInt(spec.options);
+            double roll = random.nextDouble();
+            switch (spec.fillPattern) {
+                case MULTIPLE:
+                    answers[q] = roll < 0.25 ? single | secondMark(single, random) : single;
+                    break;
+                case BLANK:
+                    answers[q] = roll < 0.25 ? 0 : single;
+                    break;
+                case MIXED:
+                    answers[q] = roll < 0.1 ? 0 : roll < 0.2 ? single | secondMark(single, random) : single;
+                    break;
+                default:
+                    answers[q] = single;
+            }
+        }
+        return answers;
+    }
+
+    private long secondMark(long first, Random random) {
+        if (spec.options < 2) return 0;
+        long second;
+        do {
+            second = 1L << random.nextInt(spec.options);
+        } while (second == first);
+        return second;
+    }
+
+    // Sheet corners in the photo: a centered rectangle with the sheet's aspect ratio, each corner
+    // then moved independently by up to spec.skew of the photo size.
+    private double[] corners(Random random) {
+        double w = spec.width, h = spec.height;
+        double scale = 0.8 * Math.min(w / SHEET_WIDTH, h / SHEET_HEIGHT);
+        double halfW = SHEET_WIDTH * scale / 2, halfH = SHEET_HEIGHT * scale / 2;
+        double cx = w / 2, cy = h / 2;
+        double[] corners = {
+                cx - halfW, cy - halfH,
+                cx + halfW, cy - halfH,
+                cx + halfW, cy + halfH,
+                cx - halfW, cy + halfH
+        };
+        for (int i = 0; i < 8; i += 2) {
+            corners[i] += (random.nextDouble() * 2 - 1) * spec.skew * w;
+            corners[i + 1] += (random.nextDouble() * 2 - 1) * spec.skew * h;
+        }
+        return corners;
+    }
+
+    private Mat project(Mat sheet, double[] corners) {
+        MatOfPoint2f src = new MatOfPoint2f(
+                new Point(0, 0), new Point(SHEET_WIDTH - 1, 0),
+                new Point(SHEET_WIDTH - 1, SHEET_HEIGHT - 1), new Point(0, SHEET_HEIGHT - 1));
+        MatOfPoint2f dst = new MatOfPoint2f(
+                new Point(corners[0], corners[1]), new Point(corners[2], corners[3]),
+                new Point(corners[4], corners[5]), new Point(corners[6], corners[7]));
+        Mat matrix = Imgproc.getPerspectiveTransform(src, dst);
+        Size size = new Size(spec.width, spec.height);
+        Mat photo = new Mat(size, CvType.CV_8UC3, DESK);
+        Imgproc.warpPerspective(sheet, photo, matrix, size, Imgproc.INTER_LINEAR, Core.BORDER_TRANSPARENT);
+        src.release();
+        dst.release();
+        matrix.release();
+        return photo;
+    }
+
+    // Multiplies the photo by a bilinear gain map: a 2x2 grid of corner gains resized to the photo size.
+    private void applyLighting(Mat photo, Random random) {
+        if (spec.lightingGradient <= 0) return;
+        Mat gains = new Mat(2, 2, CvType.CV_32FC1);
+        int dark = random.nextInt(4);
+        for (int i = 0; i < 4; i++) {
+            float gain = (float) (i == dark ? 1 - spec.lightingGradient
+                    : 1 - spec.lightingGradient * random.nextDouble() * 0.5);
+            gains.put(i / 2, i % 2, gain);
+        }
+        Mat gainMap = new Mat();
+        Imgproc.resize(gains, gainMap, photo.size(), 0, 0, Imgproc.INTER_LINEAR);
+        Mat gain3 = new Mat();
+        Imgproc.cvtColor(gainMap, gain3, Imgproc.COLOR_GRAY2BGR);
+        Mat photoF = new Mat();
+        photo.convertTo(photoF, CvType.CV_32FC3);
+        Core.multiply(photoF, gain3, photoF);
+        photoF.convertTo(photo, CvType.CV_8UC3);
+        gains.release();
+        gainMap.release();
+        gain3.release();
+        photoF.release();
+    }
+
+    private void addNoise(Mat photo, long seed) {
+        Core.setRNGSeed((int) seed);
+        Mat noise = new Mat(photo.size(), CvType.CV_16SC3);
+        Core.randn(noise, 0, spec.noise);
+        Mat photo16 = new Mat();
+        photo.convertTo(photo16, CvType.CV_16SC3);
+        Core.add(photo16, noise, photo16);
+        photo16.convertTo(photo, CvType.CV_8UC3);
+        noise.release();
+        photo16.release();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.mcq_grader.opencv.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+// Writes <count> synthetic sheets with their ground truth to <outDir> as sheet_00000.png / .csv, ...
+// Every sheet draws its own distortion levels from the ranges below, so a corpus covers clean scans
+// as well as skewed, blurred, noisy and badly lit photos.
+public class SheetGeneratorMain {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SheetGeneratorMain <count> <outDir> [questions] [options] [seed]");
+            System.exit(1);
+        }
+        int count = Integer.parseInt(args[0]);
+        File outDir = new File(args[1]);
+        int questions = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int options = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        nu.pattern.OpenCV.loadLocally();
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Could not create " + outDir);
+        }
+
+        Random random = new Random(seed);
+        SheetSpec.FillPattern[] patterns = SheetSpec.FillPattern.values();
+        for (int i = 0; i < count; i++) {
+            SheetSpec spec = new SheetSpec()
+                    .questions(questions)
+                    .options(options)
+                    .fillPattern(patterns[random.nextInt(patterns.length)])
+                    .ink(random.nextBoolean() ? SheetSpec.BLUE_INK : SheetSpec.PENCIL)
+                    .skew(random.nextDouble() * 0.06)
+                    .blur(random.nextDouble() * 2)
+                    .noise(random.nextDouble() * 10)
+                    .lightingGradient(random.nextDouble() * 0.4);
+            SyntheticSheet sheet = new SheetGenerator(spec).generate(random.nextLong());
+            sheet.writeTo(outDir, String.format("sheet_%05d", i));
+            sheet.release();
+        }
+        System.out.println("Wrote " + count + " sheets to " + outDir.getAbsolutePath());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mcq_grader.opencv.testing;
+
+import org.opencv.core.Scalar;
+
+// Parameters of a synthetic answer sheet photo. Setters return this so specs read as one expression:
+//   new SheetSpec().questions(40).options(5).ink(SheetSpec.PENCIL).skew(0.05).noise(6)
+public class SheetSpec {
+    // Ink colors in BGR.
+    public static final Scalar BLUE_INK = new Scalar(200, 60, 20);
+    public static final Scalar BLACK_INK = new Scalar(35, 35, 35);
+    public static final Scalar PENCIL = new Scalar(95, 95, 95);
+
+    public enum FillPattern {
+        // Exactly one mark per question.
+        SINGLE,
+        // One mark per question, some questions with a second mark.
+        MULTIPLE,
+        // One mark per question, some questions left blank.
+        BLANK,
+        // Mostly single marks with some multiple and some blank questions.
+        MIXED
+    }
+
+    int questions = 20;
+    int options = 4;
+    FillPattern fillPattern = FillPattern.SINGLE;
+    Scalar ink = BLUE_INK;
+    int width = 1632;
+    int height = 1224;
+    // Maximum displacement of each sheet corner, as a fraction of the photo size.
+    double skew = 0.04;
+    // Gaussian blur sigma in photo pixels, 0 for none.
+    double blur = 0;
+    // Standard deviation of the additive pixel noise, 0 for none.
+    double noise = 0;
+    // Brightness falloff across the photo, 0 for even lighting, 0.5 for half brightness in one corner.
+    double lightingGradient = 0;
+
+    public SheetSpec questions(int questions) {
+        this.questions = questions;
+        return this;
+    }
+
+    public SheetSpec options(int options) {
+        this.options = options;
+        return this;
+    }
+
+    public SheetSpec fillPattern(FillPattern fillPattern) {
+        this.fillPattern = fillPattern;
+        return this;
+    }
+
+    public SheetSpec ink(Scalar ink) {
+        this.ink = ink;
+        return this;
+    }
+
+    public SheetSpec size(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public SheetSpec skew(double skew) {
+        this.skew = skew;
+        return this;
+    }
+
+    public SheetSpec blur(double blur) {
+        this.blur = blur;
+        return this;
+    }
+
+    public SheetSpec noise(double noise) {
+        this.noise = noise;
+        return this;
+    }
+
+    public SheetSpec lightingGradient(double lightingGradient) {
+        this.lightingGradient = lightingGradient;
+        return this;
+    }
+
+    public int getQuestions() {
+        return questions;
+    }
+
+    public int getOptions() {
+        return options;
+    }
+}
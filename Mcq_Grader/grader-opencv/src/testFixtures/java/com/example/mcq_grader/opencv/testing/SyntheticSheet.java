@@ -0,0 +1,67 @@
+package com.example.mcq_grader.opencv.testing;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+// A generated sheet photo (BGR) together with its ground truth: the options marked on every question
+// and where the sheet corners ended up in the photo.
+public class SyntheticSheet {
+    private final Mat image;
+    private final long[] answers;
+    private final double[] corners;
+
+    public SyntheticSheet(Mat image, long[] answers, double[] corners) {
+        this.image = image;
+        this.answers = answers;
+        this.corners = corners;
+    }
+
+    public Mat getImage() {
+        return image;
+    }
+
+    // Per question, bit n set when option n is marked.
+    public long[] getAnswers() {
+        return answers;
+    }
+
+    // Sheet corners in the photo: top-left, top-right, bottom-right, bottom-left as x, y pairs.
+    public double[] getCorners() {
+        return corners;
+    }
+
+    public void release() {
+        image.release();
+    }
+
+    // Writes <name>.png and <name>.csv. The csv has one "question,options" line per question,
+    // options as letters ("B", "AC") or "-" for a blank question, numbered from 1.
+    public void writeTo(File dir, String name) throws IOException {
+        File imageFile = new File(dir, name + ".png");
+        if (!Imgcodecs.imwrite(imageFile.getAbsolutePath(), image)) {
+            throw new IOException("Could not write " + imageFile);
+        }
+        try (PrintWriter out = new PrintWriter(new File(dir, name + ".csv"), StandardCharsets.UTF_8.name())) {
+            out.println("question,options");
+            for (int q = 0; q < answers.length; q++) {
+                out.println((q + 1) + "," + optionLetters(answers[q]));
+            }
+        }
+    }
+
+    static String optionLetters(long selected) {
+        if (selected == 0) return "-";
+        StringBuilder letters = new StringBuilder();
+        for (int o = 0; o < Long.SIZE; o++) {
+            if ((selected & (1L << o)) != 0) {
+                letters.append((char) ('A' + o));
+            }
+        }
+        return letters.toString();
+    }
+}